@@ -0,0 +1,408 @@
+package com.learnloop.backend.config;
+
+import com.learnloop.backend.model.Comment;
+import com.learnloop.backend.model.Follow;
+import com.learnloop.backend.model.Notification;
+import com.learnloop.backend.model.Post;
+import com.learnloop.backend.model.PostLike;
+import com.learnloop.backend.model.User;
+import com.learnloop.backend.service.CommentService;
+import com.learnloop.backend.service.FollowGraphService;
+import com.learnloop.backend.service.NotificationReadService;
+import com.learnloop.backend.service.NotificationService;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Idempotent backfills for documents written before a field existed. They run
+ * once per startup in the background and only touch documents still missing
+ * the field, so after the first run they are cheap no-ops. Backfills that
+ * cannot tell done from not done by looking at the data record a marker in
+ * "data_migrations" when they complete, and are skipped once it is there.
+ *
+ * Their upserts race live writes and rely on the unique indexes to turn a lost
+ * race into a duplicate key error, so they wait for MongoIndexConfig and are
+ * put off to the next startup when an index could not be created.
+ */
+@Configuration
+public class DataMigrationConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataMigrationConfig.class);
+    private static final String MIGRATIONS = "data_migrations";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoIndexConfig mongoIndexConfig;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private FollowGraphService followGraphService;
+
+    @Autowired
+    private NotificationReadService notificationReadService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        Thread thread = new Thread(this::runMigrations, "mongo-data-migrations");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void runMigrations() {
+        try {
+            if (!mongoIndexConfig.awaitIndexes()) {
+                logger.warn("Data migrations skipped until the next startup: not every index could be created");
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        run("post counters", this::backfillPostCounters);
+        run("embedded comments", this::moveEmbeddedComments);
+        run("like edges", this::moveLikeArrays);
+        run("follow edges", this::moveFollowArrays);
+        runOnce("notification inbox", this::backfillNotifications);
+        runOnce("notification read state", this::foldNotificationHistory);
+        run("coalesced notifications", this::coalesceNotifications);
+    }
+
+    private void run(String name, Runnable migration) {
+        try {
+            migration.run();
+        } catch (Exception e) {
+            logger.warn("Data migration '{}' failed: {}", name, e.getMessage());
+        }
+    }
+
+    // The marker is written only after the migration completed, so one that failed part way runs again
+    private void runOnce(String name, Runnable migration) {
+        run(name, () -> {
+            if (mongoTemplate.exists(new Query(where("_id").is(name)), MIGRATIONS)) {
+                return;
+            }
+            migration.run();
+            mongoTemplate.save(new Document("_id", name).append("completedAt", LocalDateTime.now()), MIGRATIONS);
+        });
+    }
+
+    // likeCount / commentCount, computed server-side from the arrays they summarize
+    private void backfillPostCounters() {
+        mongoTemplate.updateMulti(new Query(where("likeCount").exists(false)),
+                AggregationUpdate.update().set("likeCount").toValue(sizeOf("likes")), Post.class);
+        mongoTemplate.updateMulti(new Query(where("commentCount").exists(false)),
+                AggregationUpdate.update().set("commentCount").toValue(sizeOf("comments")), Post.class);
+    }
+
+    // Posts used to embed their whole comment thread; move it to the comments collection
+    private void moveEmbeddedComments() {
+        Query legacy = new Query(where("comments.0").exists(true));
+        legacy.fields().include("_id", "comments");
+        try (Stream<Document> posts = mongoTemplate.stream(legacy, Document.class, "posts")) {
+            posts.forEach(this::moveComments);
+        }
+    }
+
+    private void moveComments(Document post) {
+        String postId = post.get("_id").toString();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Comment.class);
+        for (Document embedded : post.getList("comments", Document.class)) {
+            Object commentId = embedded.get("_id") != null ? embedded.get("_id") : new ObjectId().toHexString();
+            Document comment = new Document("postId", postId)
+                    .append("userId", embedded.get("userId"))
+                    .append("content", embedded.get("content"))
+                    .append("createdAt", embedded.get("createdAt"));
+            // Upsert keyed by the old comment ID so a rerun after a crash does not duplicate
+            bulk.upsert(new Query(where("_id").is(commentId)), Update.fromDocument(new Document("$setOnInsert", comment)));
+        }
+        bulk.execute();
+
+        // Recount from the collection so comments added since startup are included
+        long count = mongoTemplate.count(new Query(where("postId").is(postId)), Comment.class);
+        Update update = new Update()
+                .set("commentCount", count)
+                .set("recentComments", commentService.recentPreview(postId))
+                .unset("comments");
+        mongoTemplate.updateFirst(new Query(where("_id").is(post.get("_id"))), update, Post.class);
+    }
+
+    // Posts used to hold a likes array; move it to the post_likes collection
+    private void moveLikeArrays() {
+        Query legacy = new Query(where("likes").exists(true));
+        legacy.fields().include("_id", "likes", "createdAt");
+        try (Stream<Document> posts = mongoTemplate.stream(legacy, Document.class, "posts")) {
+            posts.forEach(this::moveLikes);
+        }
+    }
+
+    private void moveLikes(Document post) {
+        String postId = post.get("_id").toString();
+        Set<String> likerIds = idsOf(post, "likes");
+        int inserted = 0;
+        if (!likerIds.isEmpty()) {
+            // When a like happened was never stored, the post's creation time stands in for it
+            Object likedAt = post.get("createdAt") != null ? post.get("createdAt") : LocalDateTime.now();
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PostLike.class);
+            likerIds.forEach(userId -> bulk.upsert(new Query(where("postId").is(postId).and("userId").is(userId)),
+                    new Update().setOnInsert("createdAt", likedAt)));
+            inserted = upserts(bulk).size();
+        }
+        // A liker whose edge already existed liked again since startup and was counted twice
+        Update update = new Update().unset("likes");
+        if (inserted < likerIds.size()) {
+            update.inc("likeCount", inserted - likerIds.size());
+        }
+        mongoTemplate.updateFirst(new Query(where("_id").is(post.get("_id"))), update, Post.class);
+    }
+
+    // Users used to hold followers / following arrays; move them to the follows collection
+    private void moveFollowArrays() {
+        Query legacy = new Query(new Criteria().orOperator(
+                where("followers").exists(true), where("following").exists(true)));
+        legacy.fields().include("_id", "followers", "following");
+        boolean moved = false;
+        try (Stream<Document> users = mongoTemplate.stream(legacy, Document.class, "users")) {
+            for (Document user : (Iterable<Document>) users::iterator) {
+                moved |= moveFollows(user);
+            }
+        }
+        if (moved) {
+            followGraphService.reload();
+        }
+    }
+
+    // Live follows $inc the counters as they go, so only the edges inserted here are added to them. An edge
+    // that already existed was counted by FollowService, or by this migration for the other end's array.
+    private boolean moveFollows(Document user) {
+        String userId = user.get("_id").toString();
+        List<Follow> edges = new ArrayList<>();
+        idsOf(user, "following").forEach(followeeId -> addEdge(edges, userId, followeeId));
+        idsOf(user, "followers").forEach(followerId -> addEdge(edges, followerId, userId));
+        if (!edges.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Follow.class);
+            edges.forEach(edge -> bulk.upsert(
+                    new Query(where("followerId").is(edge.getFollowerId()).and("followeeId").is(edge.getFolloweeId())),
+                    new Update().setOnInsert("createdAt", LocalDateTime.now())));
+            Map<String, Integer> followerCounts = new HashMap<>();
+            Map<String, Integer> followingCounts = new HashMap<>();
+            for (BulkWriteUpsert upsert : upserts(bulk)) {
+                Follow edge = edges.get(upsert.getIndex());
+                followerCounts.merge(edge.getFolloweeId(), 1, Integer::sum);
+                followingCounts.merge(edge.getFollowerId(), 1, Integer::sum);
+            }
+            incrementCounts(followerCounts, "followerCount");
+            incrementCounts(followingCounts, "followingCount");
+        }
+        mongoTemplate.updateFirst(new Query(where("_id").is(user.get("_id"))),
+                new Update().unset("followers").unset("following"), "users");
+        return !edges.isEmpty();
+    }
+
+    private static void addEdge(List<Follow> edges, String followerId, String followeeId) {
+        if (!followerId.equals(followeeId)) {
+            Follow edge = new Follow();
+            edge.setFollowerId(followerId);
+            edge.setFolloweeId(followeeId);
+            edges.add(edge);
+        }
+    }
+
+    private void incrementCounts(Map<String, Integer> counts, String counterField) {
+        if (counts.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        counts.forEach((userId, count) -> bulk.updateOne(new Query(where("_id").is(userId)), new Update().inc(counterField, count)));
+        bulk.execute();
+    }
+
+    private static Set<String> idsOf(Document user, String field) {
+        Set<String> ids = new LinkedHashSet<>();
+        for (Object id : user.getList(field, Object.class, Collections.emptyList())) {
+            if (id != null) {
+                ids.add(id.toString());
+            }
+        }
+        return ids;
+    }
+
+    // Notifications used to be derived from posts and follows on every read. Build the inbox from them
+    // once, keyed like the old notification IDs so read state carries over. Live notifications may already
+    // be arriving, so whether it ran is tracked by its marker; the upserts are safe to repeat after a failure.
+    private void backfillNotifications() {
+        Query posts = new Query();
+        posts.fields().include("_id", "userId");
+        try (Stream<Document> stream = mongoTemplate.stream(posts, Document.class, "posts")) {
+            for (Document post : (Iterable<Document>) stream::iterator) {
+                backfillPostNotifications(post);
+            }
+        }
+
+        Query follows = new Query();
+        follows.fields().include("followerId", "followeeId", "createdAt");
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Notification.class);
+        int pending = 0;
+        try (Stream<Follow> stream = mongoTemplate.stream(follows, Follow.class)) {
+            for (Follow follow : (Iterable<Follow>) stream::iterator) {
+                upsertNotification(bulk, follow.getFolloweeId(), NotificationService.followKey(follow.getFollowerId()),
+                        Notification.FOLLOW, follow.getFollowerId(), null, follow.getCreatedAt());
+                if (++pending == 1000) {
+                    executeIgnoringDuplicates(bulk);
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Notification.class);
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) {
+            executeIgnoringDuplicates(bulk);
+        }
+    }
+
+    // Likes and comments used to be one notification each; count them into their post's coalesced entries.
+    // Runs after the read state fold, so an entry whose members were all read before the mark stays read.
+    private void coalesceNotifications() {
+        Query legacy = new Query(where("type").in(Notification.LIKE, Notification.COMMENT)
+                .and("actorCount").exists(false));
+        boolean regrouped = false;
+        try (Stream<Notification> notifications = mongoTemplate.stream(legacy, Notification.class)) {
+            for (Notification notification : (Iterable<Notification>) notifications::iterator) {
+                notificationService.regroup(notification);
+                regrouped = true;
+            }
+        }
+        if (regrouped) {
+            notificationReadService.resetUnreadCounts();
+        }
+    }
+
+    // Read state used to be one notification_history document per read notification. Fold each user's
+    // into their read state; the old documents are left in place but no longer read. Users mark notifications
+    // read as soon as the app is up, so whether it ran is tracked by its marker; markRead skips keys already read.
+    private void foldNotificationHistory() {
+        Aggregation byUser = Aggregation.newAggregation(
+                Aggregation.group("userId").addToSet("notificationId").as("keys"));
+        try (Stream<Document> users = mongoTemplate.aggregateStream(byUser, "notification_history", Document.class)) {
+            users.forEach(user -> {
+                Object userId = user.get("_id");
+                if (userId != null) {
+                    notificationReadService.markRead(userId.toString(), user.getList("keys", String.class));
+                }
+            });
+        }
+    }
+
+    private void backfillPostNotifications(Document post) {
+        String postId = post.get("_id").toString();
+        String ownerId = post.getString("userId");
+        if (ownerId == null) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Notification.class);
+        int pending = 0;
+        Query likes = new Query(where("postId").is(postId));
+        likes.fields().include("userId", "createdAt");
+        for (PostLike like : mongoTemplate.find(likes, PostLike.class)) {
+            if (!ownerId.equals(like.getUserId())) {
+                upsertNotification(bulk, ownerId, NotificationService.likeKey(postId, like.getUserId()),
+                        Notification.LIKE, like.getUserId(), postId, like.getCreatedAt());
+                pending++;
+            }
+        }
+        Query comments = new Query(where("postId").is(postId));
+        comments.fields().include("_id", "userId", "createdAt");
+        for (Comment comment : mongoTemplate.find(comments, Comment.class)) {
+            if (!ownerId.equals(comment.getUserId())) {
+                upsertNotification(bulk, ownerId, NotificationService.commentKey(postId, comment.getId()),
+                        Notification.COMMENT, comment.getUserId(), postId, comment.getCreatedAt());
+                pending++;
+            }
+        }
+        if (pending > 0) {
+            executeIgnoringDuplicates(bulk);
+        }
+    }
+
+    private static void upsertNotification(BulkOperations bulk, String userId, String key, String type,
+                                           String actorId, String postId, Object createdAt) {
+        Update update = new Update()
+                .setOnInsert("type", type)
+                .setOnInsert("actorId", actorId)
+                .setOnInsert("createdAt", createdAt != null ? createdAt : LocalDateTime.now());
+        if (postId != null) {
+            update.setOnInsert("postId", postId);
+        }
+        bulk.upsert(new Query(where("userId").is(userId).and("key").is(key)), update);
+    }
+
+    // Upserts that inserted a document; one that lost a race on the unique index found it instead
+    private static List<BulkWriteUpsert> upserts(BulkOperations bulk) {
+        BulkWriteResult result;
+        try {
+            result = bulk.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() != 11000) {
+                    throw e;
+                }
+            }
+            result = e.getResult();
+        }
+        return result.getUpserts();
+    }
+
+    // Duplicate keys only mean the document was created concurrently
+    private static void executeIgnoringDuplicates(BulkOperations bulk) {
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() != 11000) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static ArrayOperators.Size sizeOf(String arrayField) {
+        return ArrayOperators.Size.lengthOfArray(
+                ConditionalOperators.ifNull(arrayField).then(Collections.emptyList()));
+    }
+}
@@ -0,0 +1,78 @@
+package com.learnloop.backend.config;
+
+import com.learnloop.backend.model.AuthorAffinity;
+import com.learnloop.backend.model.Comment;
+import com.learnloop.backend.model.Follow;
+import com.learnloop.backend.model.Notification;
+import com.learnloop.backend.model.NotificationActor;
+import com.learnloop.backend.model.NotificationMember;
+import com.learnloop.backend.model.OutboxEntry;
+import com.learnloop.backend.model.Post;
+import com.learnloop.backend.model.PostLike;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Creates the indexes declared on our documents once the app is up. Done in the
+ * background (instead of spring.data.mongodb.auto-index-creation) so startup
+ * never blocks on, or fails because of, the database. Work that relies on the
+ * unique indexes, like the data migrations, waits for them with awaitIndexes.
+ */
+@Configuration
+public class MongoIndexConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoIndexConfig.class);
+
+    private static final List<Class<?>> INDEXED_DOCUMENTS = List.of(
+            Post.class, PostLike.class, AuthorAffinity.class, Comment.class, Follow.class, Notification.class,
+            NotificationMember.class, NotificationActor.class, OutboxEntry.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final CountDownLatch done = new CountDownLatch(1);
+    private volatile boolean complete;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        Thread thread = new Thread(this::createIndexes, "mongo-index-init");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Blocks until index creation has finished; false when some index could not be created
+    public boolean awaitIndexes() throws InterruptedException {
+        done.await();
+        return complete;
+    }
+
+    private void createIndexes() {
+        boolean created = true;
+        try {
+            MongoPersistentEntityIndexResolver resolver =
+                    new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+            for (Class<?> type : INDEXED_DOCUMENTS) {
+                try {
+                    IndexOperations indexOps = mongoTemplate.indexOps(type);
+                    resolver.resolveIndexFor(type).forEach(indexOps::ensureIndex);
+                } catch (Exception e) {
+                    created = false;
+                    logger.warn("Could not ensure indexes for {}: {}", type.getSimpleName(), e.getMessage());
+                }
+            }
+        } finally {
+            complete = created;
+            done.countDown();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.learnloop.backend.controller;
+
+import com.learnloop.backend.util.StatsSource;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    private final List<StatsSource> statsSources;
+
+    public MetricsController(List<StatsSource> statsSources) {
+        this.statsSources = statsSources;
+    }
+
+    @GetMapping
+    public Map<String, Map<String, Object>> getMetrics() {
+        Map<String, Map<String, Object>> metrics = new TreeMap<>();
+        for (StatsSource source : statsSources) {
+            metrics.put(source.getStatsName(), source.getStats());
+        }
+        return metrics;
+    }
+}
@@ -5,26 +5,45 @@ import com.learnloop.backend.dto.UpdateCommentRequest;
 import com.learnloop.backend.dto.CommentDTO;
 import com.learnloop.backend.dto.CommentRequest;
 import com.learnloop.backend.dto.LikeDTO;
+import com.learnloop.backend.dto.LikeStateDTO;
+import com.learnloop.backend.dto.UserSummaryDTO;
+import com.learnloop.backend.event.PostCreatedEvent;
+import com.learnloop.backend.event.PostDeletedEvent;
 import com.learnloop.backend.model.Post;
-import com.learnloop.backend.model.Post.Comment;
+import com.learnloop.backend.model.PostView;
+import com.learnloop.backend.model.Comment;
 import com.learnloop.backend.model.User;
+import com.learnloop.backend.repository.CommentRepository;
 import com.learnloop.backend.repository.PostRepository;
 import com.learnloop.backend.repository.UserRepository;
+import com.learnloop.backend.service.CommentService;
+import com.learnloop.backend.service.FeedService;
 import com.learnloop.backend.service.FileStorageService;
+import com.learnloop.backend.service.OutboxService;
+import com.learnloop.backend.service.PostCacheService;
+import com.learnloop.backend.service.PostLikeService;
+import com.learnloop.backend.service.UserSummaryResolver;
+import com.learnloop.backend.util.FeedCursor;
 
-import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Flux;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
 
@@ -32,6 +51,10 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/posts")
 public class PostController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int MAX_PAGE_SIZE = 50;
+    private static final int STREAM_BATCH_SIZE = 50;
+
     @Autowired
     private PostRepository postRepository;
 
@@ -41,21 +64,40 @@ public class PostController {
     @Autowired
     private FileStorageService fileStorageService;
 
-    private PostWithUserDTO convertToDTO(Post post) {
-        User user = userRepository.findById(post.getUserId()).orElse(null);
+    @Autowired
+    private UserSummaryResolver userSummaryResolver;
+
+    @Autowired
+    private FeedService feedService;
+
+    @Autowired
+    private PostLikeService postLikeService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private PostCacheService postCacheService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    // Resolves every author and commenter of the page in one query
+    private List<PostWithUserDTO> convertToDTOs(List<PostView> posts) {
+        Map<String, UserSummaryDTO> users = userSummaryResolver.resolveForPosts(posts);
+        return posts.stream().map(post -> convertToDTO(post, users)).collect(Collectors.toList());
+    }
+
+    private PostWithUserDTO convertToDTO(PostView post, Map<String, UserSummaryDTO> users) {
+        UserSummaryDTO user = users.get(post.getUserId());
         String userName = user != null ? user.getName() : "Unknown";
         String profilePicturePath = user != null ? user.getProfilePicturePath() : null;
-        List<CommentDTO> commentDTOs = post.getComments().stream().map(comment -> {
-            User commentUser = userRepository.findById(comment.getUserId()).orElse(null);
-            String commentUserName = commentUser != null ? commentUser.getName() : "Unknown";
-            return new CommentDTO(
-                comment.getId(),
-                comment.getUserId(), // Include userId as per Mongo structure
-                commentUserName,
-                comment.getContent(),
-                comment.getCreatedAt()
-            );
-        }).collect(Collectors.toList());
+        List<CommentDTO> commentDTOs = post.getRecentComments().stream()
+                .map(comment -> toCommentDTO(comment.getId(), comment.getUserId(), comment.getContent(), comment.getCreatedAt(), users))
+                .collect(Collectors.toList());
         return new PostWithUserDTO(
             post.getId(),
             post.getUserId(),
@@ -63,12 +105,27 @@ public class PostController {
             post.getDescription(),
             post.getMediaUrls(),
             post.getCreatedAt(),
-            post.getLikes(),
+            post.getLikeCount(),
+            post.isLikedByMe(),
             commentDTOs,
+            post.getCommentCount(),
             profilePicturePath
         );
     }
 
+    private CommentDTO toCommentDTO(String id, String userId, String content, LocalDateTime createdAt,
+                                    Map<String, UserSummaryDTO> users) {
+        UserSummaryDTO commentUser = users.get(userId);
+        String commentUserName = commentUser != null ? commentUser.getName() : "Unknown";
+        return new CommentDTO(
+            id,
+            userId, // Include userId as per Mongo structure
+            commentUserName,
+            content,
+            createdAt
+        );
+    }
+
     @PostMapping
     public ResponseEntity<?> createPost(
             @RequestParam("description") String description,
@@ -84,20 +141,16 @@ public class PostController {
             post.setUserId(userId);
             post.setDescription(description);
             post.setCreatedAt(LocalDateTime.now());
+            post.setUpdatedAt(post.getCreatedAt());
 
             if (media != null && media.length > 0) {
                 List<String> mediaUrls = fileStorageService.storeFiles(media);
                 post.setMediaUrls(mediaUrls);
             }
 
-            Post savedPost = postRepository.save(post);
+            Post savedPost = outboxService.writeWithEvent(() -> postRepository.save(post), PostCreatedEvent::new);
 
-            List<String> userPosts = user.getPosts();
-            userPosts.add(savedPost.getId());
-            user.setPosts(userPosts);
-            userRepository.save(user);
-
-            return ResponseEntity.ok(convertToDTO(savedPost));
+            return postResponse(savedPost.getId(), userId);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
@@ -106,46 +159,118 @@ public class PostController {
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<?> getPostsByUser(@PathVariable String userId) {
-        List<Post> posts = postRepository.findByUserId(userId);
-        List<PostWithUserDTO> postDTOs = posts.stream().map(this::convertToDTO).collect(Collectors.toList());
-        return ResponseEntity.ok(postDTOs);
+    public ResponseEntity<?> getPostsByUser(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String viewerId,
+            WebRequest request) {
+        return postPage(request, cursor, limit, viewerId,
+                (after, count) -> postRepository.findViewPageByUserIdIn(List.of(userId), after, count));
     }
 
     @GetMapping("/feed")
-    public ResponseEntity<?> getFeed(@RequestParam String userId) {
+    public ResponseEntity<?> getFeed(
+            @RequestParam String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "false") boolean ranked,
+            WebRequest request) {
         User user = userRepository.findById(userId).orElse(null);
         if (user == null) {
             return ResponseEntity.status(404).body("User not found.");
         }
-        List<String> followingIds = user.getFollowing() != null ? user.getFollowing() : new ArrayList<>();
-        List<String> userIds = new ArrayList<>(followingIds);
-        userIds.add(userId);
-        List<Post> posts = postRepository.findByUserIdIn(userIds);
-        List<PostWithUserDTO> postDTOs = posts.stream().map(this::convertToDTO).collect(Collectors.toList());
-        return ResponseEntity.ok(postDTOs);
+        if (ranked) {
+            // Ranked feeds are a single best-first page, there is no cursor
+            int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+            List<PostView> posts = postLikeService.applyViewerState(feedService.loadRankedPage(user, pageSize), userId);
+            String eTag = pageETag(posts, null);
+            if (request.checkNotModified(eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+            return ResponseEntity.ok().eTag(eTag).body(convertToDTOs(posts));
+        }
+        return postPage(request, cursor, limit, userId, (after, count) -> feedService.loadPage(user, after, count));
     }
 
-    @PostMapping("/{postId}/like")
-public ResponseEntity<?> toggleLike(@PathVariable String postId, @RequestBody LikeDTO likeDTO) {
-    Optional<Post> postOpt = postRepository.findById(postId);
-    if (postOpt.isEmpty()) return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Post not found");
-
-    Post post = postOpt.get();
-    String userId = likeDTO.getUserId();
-
-    List<String> likes = post.getLikes();
-    if (likes.contains(userId)) {
-        likes.remove(userId);  // Unlike
-    } else {
-        likes.add(userId);     // Like
+    // The whole feed as NDJSON or SSE, depending on Accept; authors are resolved per batch of posts
+    @GetMapping(value = "/feed/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public ResponseEntity<Flux<PostWithUserDTO>> streamFeed(
+            @RequestParam String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        FeedCursor after;
+        try {
+            after = FeedCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        User user = userRepository.findById(userId).orElse(null);
+        if (user == null) {
+            return ResponseEntity.status(404).build();
+        }
+        Flux<PostView> posts = feedService.stream(user, after);
+        if (limit != null) {
+            posts = posts.take(Math.max(1, limit));
+        }
+        return ResponseEntity.ok(posts.buffer(STREAM_BATCH_SIZE)
+                .concatMapIterable(batch -> convertToDTOs(postLikeService.applyViewerState(batch, userId))));
     }
 
-    post.setLikes(likes);
-    postRepository.save(post);
+    // One keyset page, newest first; the cursor for the next page goes in X-Next-Cursor.
+    // Answers 304 before any conversion when the client already has this exact page.
+    private ResponseEntity<?> postPage(WebRequest request, String cursor, int limit, String viewerId,
+                                       BiFunction<FeedCursor, Integer, List<PostView>> loader) {
+        FeedCursor after;
+        try {
+            after = FeedCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<PostView> posts = loader.apply(after, pageSize + 1);
+
+        String nextCursor = null;
+        if (posts.size() > pageSize) {
+            posts = posts.subList(0, pageSize);
+            PostView last = posts.get(pageSize - 1);
+            nextCursor = new FeedCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        postLikeService.applyViewerState(posts, viewerId);
 
-    return ResponseEntity.ok(post);
-}
+        String eTag = pageETag(posts, nextCursor);
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(eTag);
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return response.body(convertToDTOs(posts));
+    }
+
+    // Weak because author names and pictures are not part of it; they change rarely and show up on the next post change.
+    // Likes do not touch the post, so its like count and the viewer's like are part of the key.
+    private static String pageETag(List<PostView> posts, String nextCursor) {
+        StringBuilder key = new StringBuilder();
+        for (PostView post : posts) {
+            key.append(post.getId()).append(':').append(post.getVersion() != null ? post.getVersion() : 0)
+                    .append(':').append(post.getLikeCount()).append(post.isLikedByMe() ? "+" : "").append(',');
+        }
+        key.append(nextCursor != null ? nextCursor : "");
+        return "W/\"" + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    @PostMapping("/{postId}/like")
+    public ResponseEntity<?> toggleLike(@PathVariable String postId, @RequestBody LikeDTO likeDTO) {
+        try {
+            LikeStateDTO state = postLikeService.toggleLike(postId, likeDTO.getUserId());
+            if (state == null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Post not found");
+            return ResponseEntity.ok(state);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
 
     // @PostMapping("/{postId}/like")
     // public ResponseEntity<?> likePost(@PathVariable String postId, @RequestParam String userId) {
@@ -217,29 +342,39 @@ public ResponseEntity<?> addComment(
         @PathVariable String postId,
         @RequestBody CommentRequest request) {  // Make sure this is @RequestBody
     
-    Post post = postRepository.findById(postId).orElse(null);
-    if (post == null) {
+    Comment comment = commentService.addComment(postId, request.getUserId(), request.getContent());
+    if (comment == null) {
         return ResponseEntity.status(404).body("Post not found.");
     }
     
-    // Add debug logging
-    System.out.println("Received comment request: " + request.getUserId() + " - " + request.getContent());
-    
-    Comment comment = new Comment();
-    comment.setId(UUID.randomUUID().toString());
-    comment.setUserId(request.getUserId());
-    comment.setContent(request.getContent());
-    comment.setCreatedAt(LocalDateTime.now());
-    
-    // Initialize comments list if null
-    if (post.getComments() == null) {
-        post.setComments(new ArrayList<>());
+    return postResponse(postId, request.getUserId());
+}
+
+@GetMapping("/{postId}/comments")
+public ResponseEntity<?> getComments(
+        @PathVariable String postId,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "20") int limit) {
+    FeedCursor after;
+    try {
+        after = FeedCursor.decode(cursor);
+    } catch (IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
     }
-    
-    post.getComments().add(comment);
-    postRepository.save(post);
-    
-    return ResponseEntity.ok(convertToDTO(post));
+    int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    List<Comment> comments = commentRepository.findPageByPostId(postId, after, pageSize + 1);
+
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (comments.size() > pageSize) {
+        comments = comments.subList(0, pageSize);
+        Comment last = comments.get(pageSize - 1);
+        response.header(NEXT_CURSOR_HEADER, new FeedCursor(last.getCreatedAt(), last.getId()).encode());
+    }
+    Map<String, UserSummaryDTO> users = userSummaryResolver.resolve(
+            comments.stream().map(Comment::getUserId).collect(Collectors.toSet()));
+    return response.body(comments.stream()
+            .map(comment -> toCommentDTO(comment.getId(), comment.getUserId(), comment.getContent(), comment.getCreatedAt(), users))
+            .collect(Collectors.toList()));
 }
 
 @PutMapping("/{postId}/comment/{commentId}")
@@ -248,18 +383,9 @@ public ResponseEntity<?> updateComment(
         @PathVariable String commentId,
         @RequestBody UpdateCommentRequest request) {
     
-    Post post = postRepository.findById(postId).orElse(null);
-    if (post == null) {
-        return ResponseEntity.status(404).body("Post not found.");
-    }
-    
     // Find the comment
-    Comment commentToUpdate = post.getComments().stream()
-            .filter(c -> c.getId().equals(commentId))
-            .findFirst()
-            .orElse(null);
-    
-    if (commentToUpdate == null) {
+    Comment commentToUpdate = commentService.findComment(commentId);
+    if (commentToUpdate == null || !postId.equals(commentToUpdate.getPostId())) {
         return ResponseEntity.status(404).body("Comment not found.");
     }
     
@@ -269,10 +395,9 @@ public ResponseEntity<?> updateComment(
     }
     
     // Update the comment
-    commentToUpdate.setContent(request.getContent());
-    postRepository.save(post);
+    commentService.updateContent(commentToUpdate, request.getContent());
     
-    return ResponseEntity.ok(convertToDTO(post));
+    return postResponse(postId, request.getUserId());
 }
 
 @DeleteMapping("/{postId}/comment/{commentId}")
@@ -281,18 +406,9 @@ public ResponseEntity<?> deleteComment(
         @PathVariable String commentId,
         @RequestParam String userId) {
     
-    Post post = postRepository.findById(postId).orElse(null);
-    if (post == null) {
-        return ResponseEntity.status(404).body("Post not found.");
-    }
-    
     // Find the comment
-    Comment commentToDelete = post.getComments().stream()
-            .filter(c -> c.getId().equals(commentId))
-            .findFirst()
-            .orElse(null);
-    
-    if (commentToDelete == null) {
+    Comment commentToDelete = commentService.findComment(commentId);
+    if (commentToDelete == null || !postId.equals(commentToDelete.getPostId())) {
         return ResponseEntity.status(404).body("Comment not found.");
     }
     
@@ -302,12 +418,21 @@ public ResponseEntity<?> deleteComment(
     }
     
     // Remove the comment
-    post.getComments().remove(commentToDelete);
-    postRepository.save(post);
+    commentService.deleteComment(commentToDelete);
     
-    return ResponseEntity.ok(convertToDTO(post));
+    return postResponse(postId, userId);
 }
 
+    // The post as it is after a change, as seen by the user who made it
+    private ResponseEntity<?> postResponse(String postId, String viewerId) {
+        PostView post = postCacheService.get(postId);
+        if (post == null) {
+            return ResponseEntity.status(404).body("Post not found.");
+        }
+        List<PostView> view = postLikeService.applyViewerState(List.of(post), viewerId);
+        return ResponseEntity.ok(convertToDTOs(view).get(0));
+    }
+
     @PutMapping("/{postId}")
     public ResponseEntity<?> updatePost(
             @PathVariable String postId,
@@ -315,11 +440,12 @@ public ResponseEntity<?> deleteComment(
             @RequestParam String description,
             @RequestParam(value = "media", required = false) MultipartFile[] media) {
         try {
-            Post post = postRepository.findById(postId).orElse(null);
+            PostView post = postCacheService.get(postId);
             if (post == null || !post.getUserId().equals(userId)) {
                 return ResponseEntity.status(403).body("Unauthorized or post not found.");
             }
 
+            List<String> mediaUrls = null;
             if (media != null && media.length > 0) {
                 List<String> oldMediaUrls = post.getMediaUrls();
                 if (oldMediaUrls != null && !oldMediaUrls.isEmpty()) {
@@ -331,13 +457,16 @@ public ResponseEntity<?> deleteComment(
                         }
                     }
                 }
-                List<String> mediaUrls = fileStorageService.storeFiles(media);
-                post.setMediaUrls(mediaUrls);
+                mediaUrls = fileStorageService.storeFiles(media);
             }
 
-            post.setDescription(description);
-            postRepository.save(post);
-            return ResponseEntity.ok(convertToDTO(post));
+            // Only the edited fields are written, likes and counters may have changed meanwhile
+            boolean updated = postRepository.updateContent(postId, userId, description, mediaUrls);
+            postCacheService.invalidate(postId);
+            if (!updated) {
+                return ResponseEntity.status(404).body("Post not found.");
+            }
+            return postResponse(postId, userId);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
@@ -347,31 +476,18 @@ public ResponseEntity<?> deleteComment(
 
     @DeleteMapping("/{postId}")
     public ResponseEntity<?> deletePost(@PathVariable String postId, @RequestParam String userId) {
+        // The full post, since the delete event carries it
         Post post = postRepository.findById(postId).orElse(null);
         if (post == null || !post.getUserId().equals(userId)) {
             return ResponseEntity.status(403).body("Unauthorized or post not found.");
         }
 
-        List<String> mediaUrls = post.getMediaUrls();
-        if (mediaUrls != null && !mediaUrls.isEmpty()) {
-            for (String mediaUrl : mediaUrls) {
-                try {
-                    fileStorageService.deleteFile(mediaUrl);
-                } catch (IOException e) {
-                    System.err.println("Failed to delete media file: " + e.getMessage());
-                }
-            }
-        }
-
-        postRepository.delete(post);
-
-        User user = userRepository.findById(userId).orElse(null);
-        if (user != null) {
-            List<String> userPosts = user.getPosts();
-            userPosts.remove(postId);
-            user.setPosts(userPosts);
-            userRepository.save(user);
-        }
+        // Comments, likes, media, notifications, the author's post list and timelines are cleaned up from the outbox
+        outboxService.writeWithEvent(() -> {
+            postRepository.deleteById(postId);
+            return post;
+        }, PostDeletedEvent::new);
+        postCacheService.invalidate(postId);
 
         return ResponseEntity.ok("Post deleted.");
     }
@@ -1,24 +1,42 @@
 // src/main/java/com/learnloop/backend/controller/ProfileController.java
 package com.learnloop.backend.controller;
 
+import com.learnloop.backend.dto.PublicProfileDTO;
+import com.learnloop.backend.dto.UserSummaryDTO;
+import com.learnloop.backend.model.Follow;
 import com.learnloop.backend.model.User;
+import com.learnloop.backend.repository.FollowRepository;
 import com.learnloop.backend.repository.UserRepository;
 import com.learnloop.backend.service.FileStorageService;
+import com.learnloop.backend.service.FollowGraphService;
+import com.learnloop.backend.service.FollowService;
+import com.learnloop.backend.service.ProfileCacheService;
+import com.learnloop.backend.service.ProfileUpdateDispatcher;
+import com.learnloop.backend.service.SuggestionService;
+import com.learnloop.backend.service.UserSummaryResolver;
+import com.learnloop.backend.util.FeedCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/profile")
 public class ProfileController {
 
+    private static final int MAX_SUGGESTIONS = 50;
+    private static final int MAX_FOLLOW_LIST = 50;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -26,7 +44,25 @@ public class ProfileController {
     private FileStorageService fileStorageService;
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private ProfileUpdateDispatcher profileUpdateDispatcher;
+
+    @Autowired
+    private ProfileCacheService profileCacheService;
+
+    @Autowired
+    private FollowGraphService followGraphService;
+
+    @Autowired
+    private FollowService followService;
+
+    @Autowired
+    private SuggestionService suggestionService;
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Autowired
+    private UserSummaryResolver userSummaryResolver;
 
     private User findUserById(String userId) {
         return userRepository.findById(userId).orElse(null);
@@ -34,11 +70,11 @@ public class ProfileController {
 
     @GetMapping("/public/{userId}")
     public ResponseEntity<?> getPublicProfile(@PathVariable String userId) {
-        User user = findUserById(userId);
-        if (user == null) {
+        PublicProfileDTO profile = profileCacheService.get(userId);
+        if (profile == null) {
             return ResponseEntity.status(404).body("User not found.");
         }
-        return ResponseEntity.ok(user);
+        return ResponseEntity.ok(profile);
     }
 
     @PostMapping("/{userId}/follow")
@@ -46,85 +82,94 @@ public class ProfileController {
         if (userId.equals(followerId)) {
             return ResponseEntity.badRequest().body("You cannot follow yourself.");
         }
-        User user = findUserById(userId);
-        if (user == null) {
+        if (!userRepository.existsById(userId) || !userRepository.existsById(followerId)) {
             return ResponseEntity.status(404).body("User not found.");
         }
-        User follower = findUserById(followerId);
-        if (follower == null) {
-            return ResponseEntity.status(404).body("User not found.");
-        }
-        if (user.getFollowers() == null) {
-            user.setFollowers(new ArrayList<>());
-        }
-        if (!user.getFollowers().contains(followerId)) {
-            user.getFollowers().add(followerId);
-        }
-        if (follower.getFollowing() == null) {
-            follower.setFollowing(new ArrayList<>());
-        }
-        if (!follower.getFollowing().contains(userId)) {
-            follower.getFollowing().add(userId);
-        }
-        userRepository.save(user);
-        userRepository.save(follower);
+        followService.follow(followerId, userId);
         return ResponseEntity.ok("Followed successfully.");
     }
 
+    // Follow state between two users and the profile's counts, answered from the in-memory graph
+    @GetMapping("/{userId}/relationship")
+    public ResponseEntity<?> getRelationship(@PathVariable String userId, @RequestParam String viewerId) {
+        Map<String, Object> relationship = new LinkedHashMap<>();
+        relationship.put("following", followGraphService.isFollowing(viewerId, userId));
+        relationship.put("followedBy", followGraphService.isFollowing(userId, viewerId));
+        relationship.put("followerCount", followGraphService.followerCount(userId));
+        relationship.put("followingCount", followGraphService.followingCount(userId));
+        return ResponseEntity.ok(relationship);
+    }
+
     @PostMapping("/{userId}/unfollow")
 public ResponseEntity<?> unfollowUser(@PathVariable String userId, @RequestParam String followerId) {
     if (userId.equals(followerId)) {
         return ResponseEntity.badRequest().body("You cannot unfollow yourself.");
     }
-    User user = findUserById(userId);
-    if (user == null) {
+    if (!userRepository.existsById(userId) || !userRepository.existsById(followerId)) {
         return ResponseEntity.status(404).body("User not found.");
     }
-    User follower = findUserById(followerId);
-    if (follower == null) {
-        return ResponseEntity.status(404).body("User not found.");
-    }
-    if (user.getFollowers() != null) {
-        user.getFollowers().remove(followerId);
-    }
-    if (follower.getFollowing() != null) {
-        follower.getFollowing().remove(userId);
-    }
-    userRepository.save(user);
-    userRepository.save(follower);
+    followService.unfollow(followerId, userId);
     return ResponseEntity.ok("Unfollowed successfully.");
 }
 
-    @GetMapping("/followers")
-    public ResponseEntity<?> getFollowers(@RequestParam List<String> ids) {
-        List<User> followers = userRepository.findByIdIn(ids);
-        return ResponseEntity.ok(followers);
+    // Most recent followers first, read from the followeeId index of "follows"
+    @GetMapping("/{userId}/followers")
+    public ResponseEntity<?> getFollowers(@PathVariable String userId,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(defaultValue = "20") int limit) {
+        return followPage(cursor, limit, (after, size) -> followRepository.findFollowersPage(userId, after, size),
+                Follow::getFollowerId);
     }
 
-    @GetMapping("/following")
-    public ResponseEntity<?> getFollowing(@RequestParam("ids") List<String> ids) {
-        List<User> following = userRepository.findByIdIn(ids);
-        return ResponseEntity.ok(following);
+    // Most recently followed first, read from the followerId index of "follows"
+    @GetMapping("/{userId}/following")
+    public ResponseEntity<?> getFollowing(@PathVariable String userId,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(defaultValue = "20") int limit) {
+        return followPage(cursor, limit, (after, size) -> followRepository.findFollowingPage(userId, after, size),
+                Follow::getFolloweeId);
     }
 
-    @GetMapping("/suggestions")
-    public ResponseEntity<?> getSuggestions(@RequestParam String currentUserId) {
-        User currentUser = findUserById(currentUserId);
-        if (currentUser == null) {
-            return ResponseEntity.status(404).body("Current user not found.");
+    // One keyset page of user summaries; the cursor for the next page goes in X-Next-Cursor
+    private ResponseEntity<?> followPage(String cursor, int limit,
+                                         BiFunction<FeedCursor, Integer, List<Follow>> loader,
+                                         Function<Follow, String> other) {
+        FeedCursor after;
+        try {
+            after = FeedCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
-        List<User> allUsers = userRepository.findAll();
-        List<User> suggestions = new ArrayList<>();
-        List<String> followingIds = currentUser.getFollowing();
-        if (followingIds == null) {
-            followingIds = new ArrayList<>();
+        int pageSize = Math.max(1, Math.min(limit, MAX_FOLLOW_LIST));
+        List<Follow> edges = loader.apply(after, pageSize + 1);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (edges.size() > pageSize) {
+            edges = edges.subList(0, pageSize);
+            Follow last = edges.get(pageSize - 1);
+            response.header(PostController.NEXT_CURSOR_HEADER, new FeedCursor(last.getCreatedAt(), last.getId()).encode());
         }
-        for (User user : allUsers) {
-            if (!user.getId().equals(currentUserId) && !followingIds.contains(user.getId())) {
-                suggestions.add(user);
+        List<String> ids = edges.stream().map(other).collect(Collectors.toList());
+        Map<String, UserSummaryDTO> users = userSummaryResolver.resolve(ids);
+        List<UserSummaryDTO> result = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            UserSummaryDTO user = users.get(id);
+            if (user != null) {
+                result.add(user);
             }
         }
-        return ResponseEntity.ok(suggestions);
+        return response.body(result);
+    }
+
+    @GetMapping("/suggestions")
+    public ResponseEntity<?> getSuggestions(
+            @RequestParam String currentUserId,
+            @RequestParam(defaultValue = "10") int limit) {
+        if (!userRepository.existsById(currentUserId)) {
+            return ResponseEntity.status(404).body("Current user not found.");
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+        return ResponseEntity.ok(suggestionService.suggest(currentUserId, pageSize));
     }
 
     @PostMapping("/{userId}/upload-profile-picture")
@@ -164,18 +209,11 @@ public ResponseEntity<?> unfollowUser(@PathVariable String userId, @RequestParam
             if (fileUrls.isEmpty()) {
                 return ResponseEntity.status(500).body("Failed to store profile picture.");
             }
-            user.setProfilePicturePath(fileUrls.get(0));
-            userRepository.save(user);
-
-            // Notify followers via WebSocket
-            if (user.getFollowers() != null) {
-                for (String followerId : user.getFollowers()) {
-                    messagingTemplate.convertAndSend(
-                        "/topic/profile-update/" + followerId,
-                        new ProfileUpdateMessage(userId, fileUrls.get(0))
-                    );
-                }
-            }
+            userRepository.updateProfilePicture(userId, fileUrls.get(0));
+            profileCacheService.invalidate(userId);
+
+            // Notify followers via WebSocket, in the background
+            profileUpdateDispatcher.publish(userId, fileUrls.get(0));
 
             return ResponseEntity.ok("Profile picture uploaded successfully.");
         } catch (IllegalArgumentException e) {
@@ -194,10 +232,9 @@ public ResponseEntity<?> unfollowUser(@PathVariable String userId, @RequestParam
         if (user == null) {
             return ResponseEntity.status(404).body("User not found.");
         }
-        user.setName(name);
-        user.setBio(bio != null ? bio : user.getBio());
-        userRepository.save(user);
-        return ResponseEntity.ok(user);
+        userRepository.updateNameAndBio(userId, name, bio != null ? bio : user.getBio());
+        profileCacheService.invalidate(userId);
+        return ResponseEntity.ok(profileCacheService.get(userId));
     }
 
     @DeleteMapping("/{userId}/bio")
@@ -206,16 +243,18 @@ public ResponseEntity<?> unfollowUser(@PathVariable String userId, @RequestParam
         if (user == null) {
             return ResponseEntity.status(404).body("User not found.");
         }
-        user.setBio(null);
-        userRepository.save(user);
+        userRepository.updateNameAndBio(userId, user.getName(), null);
+        profileCacheService.invalidate(userId);
         return ResponseEntity.ok("Bio deleted successfully.");
     }
 
     @GetMapping("/public/username/{username}")
 public ResponseEntity<?> getPublicProfileByUsername(@PathVariable String username) {
-    return userRepository.findByUsername(username)
-        .map(ResponseEntity::ok)
-        .orElse(ResponseEntity.status(404).<User>build());
+    PublicProfileDTO profile = profileCacheService.getByUsername(username);
+    if (profile == null) {
+        return ResponseEntity.status(404).build();
+    }
+    return ResponseEntity.ok(profile);
 }
 
 
@@ -225,44 +264,13 @@ public ResponseEntity<?> removeFollower(
     @PathVariable String userId,
     @RequestParam String followerId
 ) {
-    User user = findUserById(userId);
-    User follower = findUserById(followerId);
-    
-    if (user == null || follower == null) {
+    if (!userRepository.existsById(userId) || !userRepository.existsById(followerId)) {
         return ResponseEntity.status(404).body("User not found");
     }
     
-    // Remove from user's followers list
-    if (user.getFollowers() != null) {
-        user.getFollowers().remove(followerId);
-    }
-    
-    // Remove from follower's following list
-    if (follower.getFollowing() != null) {
-        follower.getFollowing().remove(userId);
-    }
-    
-    userRepository.save(user);
-    userRepository.save(follower);
+    // Same edge as an unfollow, removed from the other side
+    followService.unfollow(followerId, userId);
     
     return ResponseEntity.ok("Follower removed successfully");
 }
 }
-
-class ProfileUpdateMessage {
-    private String userId;
-    private String profilePicturePath;
-
-    public ProfileUpdateMessage(String userId, String profilePicturePath) {
-        this.userId = userId;
-        this.profilePicturePath = profilePicturePath;
-    }
-
-    public String getUserId() {
-        return userId;
-    }
-
-    public String getProfilePicturePath() {
-        return profilePicturePath;
-    }
-}
\ No newline at end of file
@@ -1,119 +1,94 @@
 package com.learnloop.backend.controller;
 
-import com.learnloop.backend.model.NotificationHistory;
-import com.learnloop.backend.model.Post;
-import com.learnloop.backend.model.User;
-import com.learnloop.backend.repository.NotificationHistoryRepository;
-import com.learnloop.backend.repository.PostRepository;
-import com.learnloop.backend.repository.UserRepository;
+import com.learnloop.backend.dto.MarkReadRequest;
+import com.learnloop.backend.model.Notification;
+import com.learnloop.backend.service.NotificationReadService;
+import com.learnloop.backend.service.NotificationService;
+import com.learnloop.backend.util.FeedCursor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/user-notifications")
 @CrossOrigin(origins = "http://localhost:3000")
 public class UserNotificationController {
 
-    private final UserRepository userRepository;
-    private final NotificationHistoryRepository historyRepo;
-    private final PostRepository postRepository;
+    private static final int MAX_PAGE_SIZE = 50;
+    private static final int MAX_MARKED_PER_REQUEST = 500;
 
-    public UserNotificationController(UserRepository userRepository,
-                                      NotificationHistoryRepository historyRepo,
-                                      PostRepository postRepository) {
-        this.userRepository = userRepository;
-        this.historyRepo = historyRepo;
-        this.postRepository = postRepository;
+    private final NotificationReadService readService;
+    private final NotificationService notificationService;
+
+    public UserNotificationController(NotificationReadService readService,
+                                      NotificationService notificationService) {
+        this.readService = readService;
+        this.notificationService = notificationService;
     }
 
+    // Newest first from the notifications collection; the cursor for the next page goes in X-Next-Cursor
     @GetMapping("/{userId}")
-    public List<Map<String, Object>> getUserNotifications(@PathVariable String userId) {
-        Optional<User> userOpt = userRepository.findById(userId);
-        if (userOpt.isEmpty()) return new ArrayList<>();
-
-        User user = userOpt.get();
-        List<NotificationHistory> readHistory = historyRepo.findByUserId(userId);
-        Set<String> readIds = readHistory.stream()
-                .map(NotificationHistory::getNotificationId)
-                .collect(Collectors.toSet());
-
-        List<Map<String, Object>> result = new ArrayList<>();
-
-        // 1. Followers
-        if (user.getFollowers() != null) {
-            for (String followerId : user.getFollowers()) {
-                if (followerId != null) {
-                    String id = "follow:" + followerId;
-                    String followerName = userRepository.findById(followerId)
-                            .map(User::getName)
-                            .orElse("Someone");
-
-                    result.add(Map.of(
-                            "id", id,
-                            "type", "follow",
-                            "message", followerName + " followed you",
-                            "read", readIds.contains(id)
-                    ));
-                }
-            }
+    public ResponseEntity<?> getUserNotifications(@PathVariable String userId,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "20") int limit) {
+        FeedCursor after;
+        try {
+            after = FeedCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<Notification> notifications = notificationService.findPage(userId, after, pageSize + 1);
 
-        // 2. Likes and 3. Comments from user's posts
-        List<Post> userPosts = postRepository.findByUserId(userId);
-        for (Post post : userPosts) {
-            // Likes
-            if (post.getLikes() != null) {
-                for (String likerId : post.getLikes()) {
-                    String id = "like:" + post.getId() + ":" + likerId;
-                    if (!readIds.contains(id)) {
-                        String likerName = userRepository.findById(likerId)
-                                .map(User::getName)
-                                .orElse("Someone");
-                        result.add(Map.of(
-                                "id", id,
-                                "type", "like",
-                                "message", likerName + " liked your post",
-                                "read", false
-                        ));
-                    }
-                }
-            }
-
-            // Comments
-            if (post.getComments() != null) {
-                for (Post.Comment comment : post.getComments()) {
-                    String commenterId = comment.getUserId();
-                    String id = "comment:" + post.getId() + ":" + comment.getId();
-                    if (!readIds.contains(id)) {
-                        String commenterName = userRepository.findById(commenterId)
-                                .map(User::getName)
-                                .orElse("Someone");
-                        result.add(Map.of(
-                                "id", id,
-                                "type", "comment",
-                                "message", commenterName + " commented on your post",
-                                "read", false
-                        ));
-                    }
-                }
-            }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (notifications.size() > pageSize) {
+            notifications = notifications.subList(0, pageSize);
+            Notification last = notifications.get(pageSize - 1);
+            response.header(PostController.NEXT_CURSOR_HEADER, new FeedCursor(last.getCreatedAt(), last.getId()).encode());
         }
+        return response.body(notificationService.toDTOs(userId, notifications));
+    }
 
-        return result;
+    // For the badge: one lookup of a stored counter, cheap enough to poll
+    @GetMapping("/{userId}/unread-count")
+    public ResponseEntity<Map<String, Long>> getUnreadCount(@PathVariable String userId) {
+        return ResponseEntity.ok(Map.of("unreadCount", readService.unreadCount(userId)));
     }
 
+    // Takes a single notificationId or a batch in notificationIds; marking twice is harmless
     @PostMapping("/mark-read")
-    public void markNotificationAsRead(@RequestBody Map<String, String> body) {
-        String userId = body.get("userId");
-        String notificationId = body.get("notificationId");
+    public ResponseEntity<?> markNotificationsAsRead(@RequestBody MarkReadRequest body) {
+        if (body.getUserId() == null) {
+            return ResponseEntity.badRequest().body("userId is required.");
+        }
+        Set<String> keys = new HashSet<>();
+        if (body.getNotificationId() != null) {
+            keys.add(body.getNotificationId());
+        }
+        if (body.getNotificationIds() != null) {
+            keys.addAll(body.getNotificationIds());
+        }
+        if (keys.size() > MAX_MARKED_PER_REQUEST) {
+            return ResponseEntity.badRequest().body("At most " + MAX_MARKED_PER_REQUEST + " notifications per request.");
+        }
+        if (readService.markRead(body.getUserId(), keys) > 0) {
+            notificationService.pushUnreadCount(body.getUserId());
+        }
+        return ResponseEntity.ok().build();
+    }
 
-        if (!historyRepo.existsByUserIdAndNotificationId(userId, notificationId)) {
-            NotificationHistory history = new NotificationHistory();
-            history.setUserId(userId);
-            history.setNotificationId(notificationId);
-            historyRepo.save(history);
+    // "Mark all as read": everything created before the given time, or before now if it is left out
+    @PostMapping("/mark-all-read-before")
+    public ResponseEntity<?> markAllAsReadBefore(@RequestBody MarkReadRequest body) {
+        if (body.getUserId() == null) {
+            return ResponseEntity.badRequest().body("userId is required.");
+        }
+        LocalDateTime before = body.getBefore() != null ? body.getBefore() : LocalDateTime.now();
+        if (readService.markAllReadBefore(body.getUserId(), before) > 0) {
+            notificationService.pushUnreadCount(body.getUserId());
         }
+        return ResponseEntity.ok().build();
     }
 }
@@ -0,0 +1,20 @@
+package com.learnloop.backend.dto;
+
+public class LikeStateDTO {
+    private String postId;
+    private boolean liked;
+    private long likeCount;
+
+    public LikeStateDTO(String postId, boolean liked, long likeCount) {
+        this.postId = postId;
+        this.liked = liked;
+        this.likeCount = likeCount;
+    }
+
+    public String getPostId() { return postId; }
+    public void setPostId(String postId) { this.postId = postId; }
+    public boolean isLiked() { return liked; }
+    public void setLiked(boolean liked) { this.liked = liked; }
+    public long getLikeCount() { return likeCount; }
+    public void setLikeCount(long likeCount) { this.likeCount = likeCount; }
+}
@@ -0,0 +1,21 @@
+package com.learnloop.backend.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class MarkReadRequest {
+    private String userId;
+    private String notificationId;
+    private List<String> notificationIds;
+    private LocalDateTime before;
+
+    // Getters and Setters
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+    public String getNotificationId() { return notificationId; }
+    public void setNotificationId(String notificationId) { this.notificationId = notificationId; }
+    public List<String> getNotificationIds() { return notificationIds; }
+    public void setNotificationIds(List<String> notificationIds) { this.notificationIds = notificationIds; }
+    public LocalDateTime getBefore() { return before; }
+    public void setBefore(LocalDateTime before) { this.before = before; }
+}
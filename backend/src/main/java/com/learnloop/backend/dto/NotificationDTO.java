@@ -0,0 +1,48 @@
+package com.learnloop.backend.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class NotificationDTO {
+    private String id;
+    private String type;
+    private String message;
+    private String actorId;
+    private int actorCount;
+    private List<String> actorIds;
+    private String postId;
+    private boolean read;
+    private LocalDateTime timestamp;
+
+    public NotificationDTO(String id, String type, String message, String actorId, int actorCount,
+                           List<String> actorIds, String postId, boolean read, LocalDateTime timestamp) {
+        this.id = id;
+        this.type = type;
+        this.message = message;
+        this.actorId = actorId;
+        this.actorCount = actorCount;
+        this.actorIds = actorIds;
+        this.postId = postId;
+        this.read = read;
+        this.timestamp = timestamp;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+    public String getActorId() { return actorId; }
+    public void setActorId(String actorId) { this.actorId = actorId; }
+    public int getActorCount() { return actorCount; }
+    public void setActorCount(int actorCount) { this.actorCount = actorCount; }
+    public List<String> getActorIds() { return actorIds; }
+    public void setActorIds(List<String> actorIds) { this.actorIds = actorIds; }
+    public String getPostId() { return postId; }
+    public void setPostId(String postId) { this.postId = postId; }
+    public boolean isRead() { return read; }
+    public void setRead(boolean read) { this.read = read; }
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
+}
@@ -0,0 +1,21 @@
+package com.learnloop.backend.dto;
+
+// One frame on /topic/notifications/{userId}: a new notification or the key of a withdrawn one, and the unread count after it
+public class NotificationPushDTO {
+    private NotificationDTO notification;
+    private String withdrawnId;
+    private long unreadCount;
+
+    public NotificationPushDTO(NotificationDTO notification, String withdrawnId, long unreadCount) {
+        this.notification = notification;
+        this.withdrawnId = withdrawnId;
+        this.unreadCount = unreadCount;
+    }
+
+    public NotificationDTO getNotification() { return notification; }
+    public void setNotification(NotificationDTO notification) { this.notification = notification; }
+    public String getWithdrawnId() { return withdrawnId; }
+    public void setWithdrawnId(String withdrawnId) { this.withdrawnId = withdrawnId; }
+    public long getUnreadCount() { return unreadCount; }
+    public void setUnreadCount(long unreadCount) { this.unreadCount = unreadCount; }
+}
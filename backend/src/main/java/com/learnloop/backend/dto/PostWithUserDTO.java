@@ -10,21 +10,25 @@ public class PostWithUserDTO {
     private String description;
     private List<String> mediaUrls;
     private LocalDateTime createdAt;
-    private List<String> likes;
-    private List<CommentDTO> comments;
+    private int likeCount;
+    private boolean likedByMe;
+    private List<CommentDTO> comments; // Newest few only, see GET /api/posts/{postId}/comments
+    private int commentCount;
     private String profilePicturePath;
 
     public PostWithUserDTO(String id, String userId, String userName, String description,
-                           List<String> mediaUrls, LocalDateTime createdAt, List<String> likes,
-                           List<CommentDTO> comments, String profilePicturePath) {
+                           List<String> mediaUrls, LocalDateTime createdAt, int likeCount, boolean likedByMe,
+                           List<CommentDTO> comments, int commentCount, String profilePicturePath) {
         this.id = id;
         this.userId = userId;
         this.userName = userName;
         this.description = description;
         this.mediaUrls = mediaUrls;
         this.createdAt = createdAt;
-        this.likes = likes;
+        this.likeCount = likeCount;
+        this.likedByMe = likedByMe;
         this.comments = comments;
+        this.commentCount = commentCount;
         this.profilePicturePath = profilePicturePath;
     }
 
@@ -40,10 +44,14 @@ public class PostWithUserDTO {
     public void setMediaUrls(List<String> mediaUrls) { this.mediaUrls = mediaUrls; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
-    public List<String> getLikes() { return likes; }
-    public void setLikes(List<String> likes) { this.likes = likes; }
+    public int getLikeCount() { return likeCount; }
+    public void setLikeCount(int likeCount) { this.likeCount = likeCount; }
+    public boolean isLikedByMe() { return likedByMe; }
+    public void setLikedByMe(boolean likedByMe) { this.likedByMe = likedByMe; }
     public List<CommentDTO> getComments() { return comments; }
     public void setComments(List<CommentDTO> comments) { this.comments = comments; }
+    public int getCommentCount() { return commentCount; }
+    public void setCommentCount(int commentCount) { this.commentCount = commentCount; }
     public String getProfilePicturePath() { return profilePicturePath; }
     public void setProfilePicturePath(String profilePicturePath) { this.profilePicturePath = profilePicturePath; }
 }
@@ -0,0 +1,15 @@
+package com.learnloop.backend.dto;
+
+// Pushed to /topic/profile-update/{followerId} when a followed user changes their picture
+public class ProfileUpdateMessage {
+    private String userId;
+    private String profilePicturePath;
+
+    public ProfileUpdateMessage(String userId, String profilePicturePath) {
+        this.userId = userId;
+        this.profilePicturePath = profilePicturePath;
+    }
+
+    public String getUserId() { return userId; }
+    public String getProfilePicturePath() { return profilePicturePath; }
+}
@@ -0,0 +1,44 @@
+package com.learnloop.backend.dto;
+
+// What anyone may see of a user; never carries the password, email or ID lists
+public class PublicProfileDTO {
+    private String id;
+    private String name;
+    private String username;
+    private String bio;
+    private String profilePicturePath;
+    private int postCount;
+    private int followerCount;
+    private int followingCount;
+
+    public PublicProfileDTO() {
+    }
+
+    public PublicProfileDTO(PublicProfileDTO other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.username = other.username;
+        this.bio = other.bio;
+        this.profilePicturePath = other.profilePicturePath;
+        this.postCount = other.postCount;
+        this.followerCount = other.followerCount;
+        this.followingCount = other.followingCount;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+    public String getBio() { return bio; }
+    public void setBio(String bio) { this.bio = bio; }
+    public String getProfilePicturePath() { return profilePicturePath; }
+    public void setProfilePicturePath(String profilePicturePath) { this.profilePicturePath = profilePicturePath; }
+    public int getPostCount() { return postCount; }
+    public void setPostCount(int postCount) { this.postCount = postCount; }
+    public int getFollowerCount() { return followerCount; }
+    public void setFollowerCount(int followerCount) { this.followerCount = followerCount; }
+    public int getFollowingCount() { return followingCount; }
+    public void setFollowingCount(int followingCount) { this.followingCount = followingCount; }
+}
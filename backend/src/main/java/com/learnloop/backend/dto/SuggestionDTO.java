@@ -0,0 +1,36 @@
+package com.learnloop.backend.dto;
+
+public class SuggestionDTO {
+    private String id;
+    private String name;
+    private String username;
+    private String profilePicturePath;
+    private int mutualCount; // How many of the viewer's followees follow this user
+    private boolean followsYou;
+    private int sharedTopicCount;
+
+    public SuggestionDTO(UserSummaryDTO user, int mutualCount, boolean followsYou, int sharedTopicCount) {
+        this.id = user.getId();
+        this.name = user.getName();
+        this.username = user.getUsername();
+        this.profilePicturePath = user.getProfilePicturePath();
+        this.mutualCount = mutualCount;
+        this.followsYou = followsYou;
+        this.sharedTopicCount = sharedTopicCount;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+    public String getProfilePicturePath() { return profilePicturePath; }
+    public void setProfilePicturePath(String profilePicturePath) { this.profilePicturePath = profilePicturePath; }
+    public int getMutualCount() { return mutualCount; }
+    public void setMutualCount(int mutualCount) { this.mutualCount = mutualCount; }
+    public boolean isFollowsYou() { return followsYou; }
+    public void setFollowsYou(boolean followsYou) { this.followsYou = followsYou; }
+    public int getSharedTopicCount() { return sharedTopicCount; }
+    public void setSharedTopicCount(int sharedTopicCount) { this.sharedTopicCount = sharedTopicCount; }
+}
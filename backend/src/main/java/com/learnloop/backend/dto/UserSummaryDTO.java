@@ -0,0 +1,24 @@
+package com.learnloop.backend.dto;
+
+public class UserSummaryDTO {
+    private String id;
+    private String name;
+    private String username;
+    private String profilePicturePath;
+
+    public UserSummaryDTO(String id, String name, String username, String profilePicturePath) {
+        this.id = id;
+        this.name = name;
+        this.username = username;
+        this.profilePicturePath = profilePicturePath;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+    public String getProfilePicturePath() { return profilePicturePath; }
+    public void setProfilePicturePath(String profilePicturePath) { this.profilePicturePath = profilePicturePath; }
+}
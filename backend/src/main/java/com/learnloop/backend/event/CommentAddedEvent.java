@@ -0,0 +1,17 @@
+package com.learnloop.backend.event;
+
+import com.learnloop.backend.model.Comment;
+
+public class CommentAddedEvent extends DomainEvent {
+
+    private final Comment comment;
+    private final String postOwnerId;
+
+    public CommentAddedEvent(Comment comment, String postOwnerId) {
+        this.comment = comment;
+        this.postOwnerId = postOwnerId;
+    }
+
+    public Comment getComment() { return comment; }
+    public String getPostOwnerId() { return postOwnerId; }
+}
@@ -0,0 +1,18 @@
+package com.learnloop.backend.event;
+
+/**
+ * Something that happened to a post, comment, like or follow, handed to the
+ * DomainEventConsumers after the primary write so that its side effects can
+ * run off the request thread. Every event is recorded in the outbox in the
+ * same transaction as its write, and its id is that of the outbox entry, so
+ * it stays the same when the event is delivered again.
+ */
+public abstract class DomainEvent {
+
+    private final long occurredAt = System.currentTimeMillis();
+    private String id;
+
+    public long getOccurredAt() { return occurredAt; }
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+}
@@ -0,0 +1,17 @@
+package com.learnloop.backend.event;
+
+import java.util.List;
+
+/**
+ * Implemented by components that react to domain events. Every bean of this
+ * type is handed all events by the OutboxService, a batch at a time and in
+ * the order they were written; it ignores the types it does not handle.
+ * After a failed batch the same events are handed over again one at a time,
+ * and a failing event is retried until it succeeds, so handling an event
+ * twice must be harmless. A consumer must not depend on a service that
+ * writes through the outbox.
+ */
+public interface DomainEventConsumer {
+    String getConsumerName();
+    void onEvents(List<DomainEvent> events);
+}
@@ -0,0 +1,19 @@
+package com.learnloop.backend.event;
+
+// Only recorded when an edge was actually created or removed
+public class FollowChangedEvent extends DomainEvent {
+
+    private final String followerId;
+    private final String followeeId;
+    private final boolean following;
+
+    public FollowChangedEvent(String followerId, String followeeId, boolean following) {
+        this.followerId = followerId;
+        this.followeeId = followeeId;
+        this.following = following;
+    }
+
+    public String getFollowerId() { return followerId; }
+    public String getFolloweeId() { return followeeId; }
+    public boolean isFollowing() { return following; }
+}
@@ -0,0 +1,21 @@
+package com.learnloop.backend.event;
+
+public class LikeToggledEvent extends DomainEvent {
+
+    private final String postId;
+    private final String postOwnerId;
+    private final String userId;
+    private final boolean liked;
+
+    public LikeToggledEvent(String postId, String postOwnerId, String userId, boolean liked) {
+        this.postId = postId;
+        this.postOwnerId = postOwnerId;
+        this.userId = userId;
+        this.liked = liked;
+    }
+
+    public String getPostId() { return postId; }
+    public String getPostOwnerId() { return postOwnerId; }
+    public String getUserId() { return userId; }
+    public boolean isLiked() { return liked; }
+}
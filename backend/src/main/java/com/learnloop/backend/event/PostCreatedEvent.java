@@ -0,0 +1,14 @@
+package com.learnloop.backend.event;
+
+import com.learnloop.backend.model.Post;
+
+public class PostCreatedEvent extends DomainEvent {
+
+    private final Post post;
+
+    public PostCreatedEvent(Post post) {
+        this.post = post;
+    }
+
+    public Post getPost() { return post; }
+}
@@ -0,0 +1,15 @@
+package com.learnloop.backend.event;
+
+import com.learnloop.backend.model.Post;
+
+// Carries the post as it was, so consumers can still reach its author and media
+public class PostDeletedEvent extends DomainEvent {
+
+    private final Post post;
+
+    public PostDeletedEvent(Post post) {
+        this.post = post;
+    }
+
+    public Post getPost() { return post; }
+}
@@ -0,0 +1,36 @@
+package com.learnloop.backend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * How much a user interacts with an author's posts, kept as a running
+ * counter (likes and comments) so feed ranking never has to recount it.
+ * recentEvents holds the ids of the last events added to it, so a
+ * redelivered event is not counted twice.
+ */
+@Document(collection = "author_affinity")
+@CompoundIndex(name = "userId_authorId", def = "{'userId': 1, 'authorId': 1}", unique = true)
+public class AuthorAffinity {
+    @Id
+    private String id;
+    private String userId;
+    private String authorId;
+    private long score;
+    private List<String> recentEvents = new ArrayList<>();
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+    public String getAuthorId() { return authorId; }
+    public void setAuthorId(String authorId) { this.authorId = authorId; }
+    public long getScore() { return score; }
+    public void setScore(long score) { this.score = score; }
+    public List<String> getRecentEvents() { return recentEvents; }
+    public void setRecentEvents(List<String> recentEvents) { this.recentEvents = recentEvents; }
+}
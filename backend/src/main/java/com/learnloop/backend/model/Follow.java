@@ -0,0 +1,32 @@
+package com.learnloop.backend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// One document per follow; the follower/following lists are index scans instead of arrays on User
+@Document(collection = "follows")
+@CompoundIndexes({
+        @CompoundIndex(name = "followerId_followeeId", def = "{'followerId': 1, 'followeeId': 1}", unique = true),
+        @CompoundIndex(name = "followerId_createdAt", def = "{'followerId': 1, 'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "followeeId_createdAt", def = "{'followeeId': 1, 'createdAt': -1, '_id': -1}")
+})
+public class Follow {
+    @Id
+    private String id;
+    private String followerId;
+    private String followeeId;
+    private LocalDateTime createdAt;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getFollowerId() { return followerId; }
+    public void setFollowerId(String followerId) { this.followerId = followerId; }
+    public String getFolloweeId() { return followeeId; }
+    public void setFolloweeId(String followeeId) { this.followeeId = followeeId; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
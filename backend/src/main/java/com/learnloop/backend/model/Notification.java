@@ -0,0 +1,54 @@
+package com.learnloop.backend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// One document per follow aimed at a user, and one per post, type and time window for likes and comments,
+// written when they happen
+@Document(collection = "notifications")
+@CompoundIndexes({
+        @CompoundIndex(name = "userId_createdAt", def = "{'userId': 1, 'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "userId_key", def = "{'userId': 1, 'key': 1}", unique = true)
+})
+public class Notification {
+    public static final String LIKE = "like";
+    public static final String COMMENT = "comment";
+    public static final String FOLLOW = "follow";
+
+    @Id
+    private String id;
+    private String userId;    // who is notified
+    private String key;       // "like:{postId}:{window}", "comment:{postId}:{window}" or "follow:{actorId}"
+    private String type;
+    private String actorId;   // the most recent one
+    private int actorCount;   // likes and comments only
+    private List<String> sampleActorIds;  // the most recent few, newest first
+    @Indexed(sparse = true)
+    private String postId;
+    private LocalDateTime createdAt;  // of the latest activity
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public String getActorId() { return actorId; }
+    public void setActorId(String actorId) { this.actorId = actorId; }
+    public int getActorCount() { return actorCount; }
+    public void setActorCount(int actorCount) { this.actorCount = actorCount; }
+    public List<String> getSampleActorIds() { return sampleActorIds; }
+    public void setSampleActorIds(List<String> sampleActorIds) { this.sampleActorIds = sampleActorIds; }
+    public String getPostId() { return postId; }
+    public void setPostId(String postId) { this.postId = postId; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
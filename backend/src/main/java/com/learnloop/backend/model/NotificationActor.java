@@ -0,0 +1,33 @@
+package com.learnloop.backend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+// How many members one actor has in a coalesced notification; going from 0 to 1 and back decides actorCount
+@Document(collection = "notification_actors")
+@CompoundIndex(name = "userId_groupKey_actorId", def = "{'userId': 1, 'groupKey': 1, 'actorId': 1}", unique = true)
+public class NotificationActor {
+    @Id
+    private String id;
+    private String userId;
+    private String groupKey;
+    private String actorId;
+    @Indexed
+    private String postId;
+    private int members;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+    public String getGroupKey() { return groupKey; }
+    public void setGroupKey(String groupKey) { this.groupKey = groupKey; }
+    public String getActorId() { return actorId; }
+    public void setActorId(String actorId) { this.actorId = actorId; }
+    public String getPostId() { return postId; }
+    public void setPostId(String postId) { this.postId = postId; }
+    public int getMembers() { return members; }
+    public void setMembers(int members) { this.members = members; }
+}
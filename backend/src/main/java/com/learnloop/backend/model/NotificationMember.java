@@ -0,0 +1,46 @@
+package com.learnloop.backend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// One like or comment counted in a coalesced notification, so it can be counted once and taken back out
+@Document(collection = "notification_members")
+@CompoundIndexes({
+        @CompoundIndex(name = "userId_key", def = "{'userId': 1, 'key': 1}", unique = true),
+        @CompoundIndex(name = "userId_groupKey_createdAt", def = "{'userId': 1, 'groupKey': 1, 'createdAt': -1}"),
+        @CompoundIndex(name = "userId_groupKey_actorId", def = "{'userId': 1, 'groupKey': 1, 'actorId': 1}")
+})
+public class NotificationMember {
+    @Id
+    private String id;
+    private String userId;    // who is notified
+    private String key;       // "like:{postId}:{actorId}" or "comment:{postId}:{commentId}"
+    private String groupKey;  // key of the Notification it is counted in
+    private String actorId;
+    @Indexed
+    private String postId;
+    private LocalDateTime createdAt;
+    private Boolean counted;  // counted in its NotificationActor; not set on members stored before those existed
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+    public String getGroupKey() { return groupKey; }
+    public void setGroupKey(String groupKey) { this.groupKey = groupKey; }
+    public String getActorId() { return actorId; }
+    public void setActorId(String actorId) { this.actorId = actorId; }
+    public String getPostId() { return postId; }
+    public void setPostId(String postId) { this.postId = postId; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public Boolean getCounted() { return counted; }
+    public void setCounted(Boolean counted) { this.counted = counted; }
+}
@@ -0,0 +1,66 @@
+package com.learnloop.backend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Which of a user's notifications are read: everything created before
+ * readBefore, plus the few newer ones read individually. The exceptions
+ * are dropped as readBefore moves past them, so the document stays small.
+ * It also carries the unread count, so the badge is a lookup by ID.
+ */
+@Document(collection = "notification_read_state")
+public class NotificationReadState {
+    @Id
+    private String userId;
+    private LocalDateTime readBefore;
+    private List<ReadKey> readKeys;
+    private Long unreadCount;  // null until first counted
+
+    public NotificationReadState() {
+        this.readKeys = new ArrayList<>();
+    }
+
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+    public LocalDateTime getReadBefore() { return readBefore; }
+    public void setReadBefore(LocalDateTime readBefore) { this.readBefore = readBefore; }
+    public List<ReadKey> getReadKeys() { return readKeys; }
+    public void setReadKeys(List<ReadKey> readKeys) { this.readKeys = readKeys; }
+    public Long getUnreadCount() { return unreadCount; }
+    public void setUnreadCount(Long unreadCount) { this.unreadCount = unreadCount; }
+
+    public boolean isRead(Notification notification) {
+        if (readBefore != null && notification.getCreatedAt() != null && notification.getCreatedAt().isBefore(readBefore)) {
+            return true;
+        }
+        for (ReadKey readKey : readKeys) {
+            if (readKey.getKey().equals(notification.getKey())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static class ReadKey {
+        private String key;
+        private LocalDateTime createdAt;
+
+        public ReadKey() {
+        }
+
+        public ReadKey(String key, LocalDateTime createdAt) {
+            this.key = key;
+            this.createdAt = createdAt;
+        }
+
+        public String getKey() { return key; }
+        public void setKey(String key) { this.key = key; }
+        public LocalDateTime getCreatedAt() { return createdAt; }
+        public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    }
+}
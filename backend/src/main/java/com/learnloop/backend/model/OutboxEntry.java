@@ -0,0 +1,65 @@
+package com.learnloop.backend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// A domain event written in the same transaction as the write it describes, removed once every consumer has handled it
+@Document(collection = "outbox")
+public class OutboxEntry {
+    public static final String POST_CREATED = "postCreated";
+    public static final String POST_DELETED = "postDeleted";
+    public static final String LIKE_TOGGLED = "likeToggled";
+    public static final String COMMENT_ADDED = "commentAdded";
+    public static final String COMMENT_DELETED = "commentDeleted";
+    public static final String FOLLOW_CHANGED = "followChanged";
+
+    @Id
+    private String id;
+    private String type;
+    private Post post;                 // as it was when the event happened
+    private Comment comment;
+    private String postId;
+    private String postOwnerId;
+    private String userId;             // who liked or followed
+    private String followeeId;
+    private boolean active;            // liked or followed, rather than unliked or unfollowed
+    private LocalDateTime createdAt;
+    @Indexed
+    private LocalDateTime availableAt; // when it may next be claimed
+    @Indexed(sparse = true)
+    private String claim;              // set by the poller that is handling it
+    private int attempts;
+    private String lastError;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public Post getPost() { return post; }
+    public void setPost(Post post) { this.post = post; }
+    public Comment getComment() { return comment; }
+    public void setComment(Comment comment) { this.comment = comment; }
+    public String getPostId() { return postId; }
+    public void setPostId(String postId) { this.postId = postId; }
+    public String getPostOwnerId() { return postOwnerId; }
+    public void setPostOwnerId(String postOwnerId) { this.postOwnerId = postOwnerId; }
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+    public String getFolloweeId() { return followeeId; }
+    public void setFolloweeId(String followeeId) { this.followeeId = followeeId; }
+    public boolean isActive() { return active; }
+    public void setActive(boolean active) { this.active = active; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public LocalDateTime getAvailableAt() { return availableAt; }
+    public void setAvailableAt(LocalDateTime availableAt) { this.availableAt = availableAt; }
+    public String getClaim() { return claim; }
+    public void setClaim(String claim) { this.claim = claim; }
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+}
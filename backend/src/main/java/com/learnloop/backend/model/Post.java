@@ -1,13 +1,17 @@
 package com.learnloop.backend.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Document(collection = "posts")
+@CompoundIndex(name = "userId_createdAt", def = "{'userId': 1, 'createdAt': -1, '_id': -1}")
 public class Post {
     @Id
     private String id;
@@ -15,13 +19,17 @@ public class Post {
     private String description;
     private List<String> mediaUrls;
     private LocalDateTime createdAt;
-    private List<String> likes;
-    private List<Comment> comments;
+    private List<Comment> recentComments; // Preview of the newest comments, the thread lives in "comments"
+    private int likeCount;    // Written behind by LikeCounterService, the likes live in "post_likes"
+    private Map<String, Long> likeFlushes; // Per app instance, the number of its last counter flush that wrote likeCount
+    private int commentCount;
+    @Version
+    private Long version; // Bumped by every update through MongoTemplate, see PostController.pageETag
+    private LocalDateTime updatedAt;
 
     public Post() {
         this.mediaUrls = new ArrayList<>();
-        this.likes = new ArrayList<>();
-        this.comments = new ArrayList<>();
+        this.recentComments = new ArrayList<>();
     }
 
     public String getId() { return id; }
@@ -34,10 +42,18 @@ public class Post {
     public void setMediaUrls(List<String> mediaUrls) { this.mediaUrls = mediaUrls; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
-    public List<String> getLikes() { return likes; }
-    public void setLikes(List<String> likes) { this.likes = likes; }
-    public List<Comment> getComments() { return comments; }
-    public void setComments(List<Comment> comments) { this.comments = comments; }
+    public List<Comment> getRecentComments() { return recentComments; }
+    public void setRecentComments(List<Comment> recentComments) { this.recentComments = recentComments; }
+    public int getLikeCount() { return likeCount; }
+    public void setLikeCount(int likeCount) { this.likeCount = likeCount; }
+    public Map<String, Long> getLikeFlushes() { return likeFlushes; }
+    public void setLikeFlushes(Map<String, Long> likeFlushes) { this.likeFlushes = likeFlushes; }
+    public int getCommentCount() { return commentCount; }
+    public void setCommentCount(int commentCount) { this.commentCount = commentCount; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
 
     public static class Comment {
         private String id;
@@ -0,0 +1,27 @@
+package com.learnloop.backend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// One document per like, so liking never writes to the post; its likeCount is flushed by LikeCounterService
+@Document(collection = "post_likes")
+@CompoundIndex(name = "postId_userId", def = "{'postId': 1, 'userId': 1}", unique = true)
+public class PostLike {
+    @Id
+    private String id;
+    private String postId;
+    private String userId;
+    private LocalDateTime createdAt;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getPostId() { return postId; }
+    public void setPostId(String postId) { this.postId = postId; }
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,81 @@
+package com.learnloop.backend.model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read model of a post as the feed shows it, built by a projection on the
+ * posts collection. likeCount is the persisted counter until
+ * PostLikeService.applyViewerState adds the pending deltas and sets likedByMe.
+ */
+public class PostView {
+    private String id;
+    private String userId;
+    private String description;
+    private List<String> mediaUrls = new ArrayList<>();
+    private LocalDateTime createdAt;
+    private int likeCount;
+    private Map<String, Long> likeFlushes;
+    private boolean likedByMe;
+    private int commentCount;
+    private List<Post.Comment> recentComments = new ArrayList<>();
+    private Long version;
+
+    // The same view taken from a full post
+    public static PostView of(Post post) {
+        PostView view = new PostView();
+        view.setId(post.getId());
+        view.setUserId(post.getUserId());
+        view.setDescription(post.getDescription());
+        view.setMediaUrls(post.getMediaUrls());
+        view.setCreatedAt(post.getCreatedAt());
+        view.setLikeCount(post.getLikeCount());
+        view.setLikeFlushes(post.getLikeFlushes());
+        view.setCommentCount(post.getCommentCount());
+        view.setRecentComments(post.getRecentComments());
+        view.setVersion(post.getVersion());
+        return view;
+    }
+
+    // A copy for one caller to fill in its viewer state; the lists and the map are shared and not modified
+    public PostView copy() {
+        PostView view = new PostView();
+        view.setId(id);
+        view.setUserId(userId);
+        view.setDescription(description);
+        view.setMediaUrls(mediaUrls);
+        view.setCreatedAt(createdAt);
+        view.setLikeCount(likeCount);
+        view.setLikeFlushes(likeFlushes);
+        view.setLikedByMe(likedByMe);
+        view.setCommentCount(commentCount);
+        view.setRecentComments(recentComments);
+        view.setVersion(version);
+        return view;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    public List<String> getMediaUrls() { return mediaUrls; }
+    public void setMediaUrls(List<String> mediaUrls) { this.mediaUrls = mediaUrls; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public int getLikeCount() { return likeCount; }
+    public void setLikeCount(int likeCount) { this.likeCount = likeCount; }
+    public Map<String, Long> getLikeFlushes() { return likeFlushes; }
+    public void setLikeFlushes(Map<String, Long> likeFlushes) { this.likeFlushes = likeFlushes; }
+    public boolean isLikedByMe() { return likedByMe; }
+    public void setLikedByMe(boolean likedByMe) { this.likedByMe = likedByMe; }
+    public int getCommentCount() { return commentCount; }
+    public void setCommentCount(int commentCount) { this.commentCount = commentCount; }
+    public List<Post.Comment> getRecentComments() { return recentComments; }
+    public void setRecentComments(List<Post.Comment> recentComments) { this.recentComments = recentComments; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+}
@@ -0,0 +1,54 @@
+package com.learnloop.backend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Precomputed home feed of one user: the IDs of the newest posts from the
+ * accounts they follow (and their own), newest first and capped in size.
+ */
+@Document(collection = "timelines")
+public class Timeline {
+    @Id
+    private String userId;
+    private List<Entry> entries;
+
+    public Timeline() {
+        this.entries = new ArrayList<>();
+    }
+
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+    public List<Entry> getEntries() { return entries; }
+    public void setEntries(List<Entry> entries) { this.entries = entries; }
+
+    public static class Entry {
+        private String postId;
+        private String authorId;
+        private LocalDateTime createdAt;
+
+        public Entry() {
+        }
+
+        public Entry(String postId, String authorId, LocalDateTime createdAt) {
+            this.postId = postId;
+            this.authorId = authorId;
+            this.createdAt = createdAt;
+        }
+
+        public static Entry of(Post post) {
+            return new Entry(post.getId(), post.getUserId(), post.getCreatedAt());
+        }
+
+        public String getPostId() { return postId; }
+        public void setPostId(String postId) { this.postId = postId; }
+        public String getAuthorId() { return authorId; }
+        public void setAuthorId(String authorId) { this.authorId = authorId; }
+        public LocalDateTime getCreatedAt() { return createdAt; }
+        public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    }
+}
@@ -27,8 +27,8 @@ public class User {
 
     private String profilePicturePath; // Changed from byte[] to String to store file path
     private String bio;
-    private List<String> followers = new ArrayList<>();
-    private List<String> following = new ArrayList<>();
+    private int followerCount; // Maintained with $inc by FollowService, the edges live in "follows"
+    private int followingCount;
     private List<String> posts = new ArrayList<>();
     private List<String> likes = new ArrayList<>();
     private List<String> comments = new ArrayList<>();
@@ -99,20 +99,20 @@ public class User {
         this.bio = bio;
     }
 
-    public List<String> getFollowers() {
-        return followers;
+    public int getFollowerCount() {
+        return followerCount;
     }
 
-    public void setFollowers(List<String> followers) {
-        this.followers = followers;
+    public void setFollowerCount(int followerCount) {
+        this.followerCount = followerCount;
     }
 
-    public List<String> getFollowing() {
-        return following;
+    public int getFollowingCount() {
+        return followingCount;
     }
 
-    public void setFollowing(List<String> following) {
-        this.following = following;
+    public void setFollowingCount(int followingCount) {
+        this.followingCount = followingCount;
     }
 
     public List<String> getPosts() {
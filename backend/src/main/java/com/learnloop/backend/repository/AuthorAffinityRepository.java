@@ -0,0 +1,11 @@
+package com.learnloop.backend.repository;
+
+import com.learnloop.backend.model.AuthorAffinity;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface AuthorAffinityRepository extends MongoRepository<AuthorAffinity, String> {
+    List<AuthorAffinity> findByUserIdAndAuthorIdIn(String userId, Collection<String> authorIds);
+}
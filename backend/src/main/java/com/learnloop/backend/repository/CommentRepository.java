@@ -0,0 +1,11 @@
+package com.learnloop.backend.repository;
+
+import com.learnloop.backend.model.Comment;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface CommentRepository extends MongoRepository<Comment, String>, CommentRepositoryCustom {
+    List<Comment> findByPostIdIn(Collection<String> postIds);
+}
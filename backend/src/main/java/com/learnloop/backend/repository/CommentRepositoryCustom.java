@@ -0,0 +1,14 @@
+package com.learnloop.backend.repository;
+
+import com.learnloop.backend.model.Comment;
+import com.learnloop.backend.util.FeedCursor;
+
+import java.util.List;
+
+public interface CommentRepositoryCustom {
+    // Oldest first, strictly after the cursor; served by the {postId, createdAt} index
+    List<Comment> findPageByPostId(String postId, FeedCursor cursor, int limit);
+
+    // Newest first
+    List<Comment> findLatestByPostId(String postId, int limit);
+}
@@ -0,0 +1,43 @@
+package com.learnloop.backend.repository;
+
+import com.learnloop.backend.model.Comment;
+import com.learnloop.backend.util.FeedCursor;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+public class CommentRepositoryImpl implements CommentRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Comment> findPageByPostId(String postId, FeedCursor cursor, int limit) {
+        Criteria criteria = Criteria.where("postId").is(postId);
+        if (cursor != null) {
+            Object cursorId = ObjectId.isValid(cursor.getId()) ? new ObjectId(cursor.getId()) : cursor.getId();
+            criteria = criteria.orOperator(
+                    Criteria.where("createdAt").gt(cursor.getCreatedAt()),
+                    new Criteria().andOperator(
+                            Criteria.where("createdAt").is(cursor.getCreatedAt()),
+                            Criteria.where("_id").gt(cursorId)));
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "createdAt").and(Sort.by(Sort.Direction.ASC, "_id")))
+                .limit(limit);
+        return mongoTemplate.find(query, Comment.class);
+    }
+
+    @Override
+    public List<Comment> findLatestByPostId(String postId, int limit) {
+        Query query = new Query(Criteria.where("postId").is(postId))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "_id")))
+                .limit(limit);
+        return mongoTemplate.find(query, Comment.class);
+    }
+}
@@ -0,0 +1,8 @@
+package com.learnloop.backend.repository;
+
+import com.learnloop.backend.model.Follow;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface FollowRepository extends MongoRepository<Follow, String>, FollowRepositoryCustom {
+    boolean existsByFollowerIdAndFolloweeId(String followerId, String followeeId);
+}
@@ -0,0 +1,12 @@
+package com.learnloop.backend.repository;
+
+import com.learnloop.backend.model.Follow;
+import com.learnloop.backend.util.FeedCursor;
+
+import java.util.List;
+
+public interface FollowRepositoryCustom {
+    // Newest follows first, strictly after the cursor; each is one scan of a {…Id, createdAt} index
+    List<Follow> findFollowersPage(String followeeId, FeedCursor cursor, int limit);
+    List<Follow> findFollowingPage(String followerId, FeedCursor cursor, int limit);
+}
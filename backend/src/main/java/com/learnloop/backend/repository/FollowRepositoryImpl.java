@@ -0,0 +1,46 @@
+package com.learnloop.backend.repository;
+
+import com.learnloop.backend.model.Follow;
+import com.learnloop.backend.util.FeedCursor;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+public class FollowRepositoryImpl implements FollowRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Follow> findFollowersPage(String followeeId, FeedCursor cursor, int limit) {
+        return findPage("followeeId", followeeId, "followerId", cursor, limit);
+    }
+
+    @Override
+    public List<Follow> findFollowingPage(String followerId, FeedCursor cursor, int limit) {
+        return findPage("followerId", followerId, "followeeId", cursor, limit);
+    }
+
+    // Only the other end of the edge and the sort keys are read
+    private List<Follow> findPage(String field, String userId, String otherField, FeedCursor cursor, int limit) {
+        Criteria criteria = Criteria.where(field).is(userId);
+        if (cursor != null) {
+            Object cursorId = ObjectId.isValid(cursor.getId()) ? new ObjectId(cursor.getId()) : cursor.getId();
+            criteria = criteria.orOperator(
+                    Criteria.where("createdAt").lt(cursor.getCreatedAt()),
+                    new Criteria().andOperator(
+                            Criteria.where("createdAt").is(cursor.getCreatedAt()),
+                            Criteria.where("_id").lt(cursorId)));
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "_id")))
+                .limit(limit);
+        query.fields().include(otherField, "createdAt");
+        return mongoTemplate.find(query, Follow.class);
+    }
+}
@@ -0,0 +1,7 @@
+package com.learnloop.backend.repository;
+
+import com.learnloop.backend.model.Notification;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface NotificationRepository extends MongoRepository<Notification, String>, NotificationRepositoryCustom {
+}
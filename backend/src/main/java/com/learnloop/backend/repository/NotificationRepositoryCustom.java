@@ -0,0 +1,11 @@
+package com.learnloop.backend.repository;
+
+import com.learnloop.backend.model.Notification;
+import com.learnloop.backend.util.FeedCursor;
+
+import java.util.List;
+
+public interface NotificationRepositoryCustom {
+    // Newest first, strictly after the cursor; served by the {userId, createdAt} index
+    List<Notification> findPageByUserId(String userId, FeedCursor cursor, int limit);
+}
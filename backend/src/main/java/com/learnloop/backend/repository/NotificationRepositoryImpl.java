@@ -0,0 +1,35 @@
+package com.learnloop.backend.repository;
+
+import com.learnloop.backend.model.Notification;
+import com.learnloop.backend.util.FeedCursor;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+public class NotificationRepositoryImpl implements NotificationRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Notification> findPageByUserId(String userId, FeedCursor cursor, int limit) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (cursor != null) {
+            Object cursorId = ObjectId.isValid(cursor.getId()) ? new ObjectId(cursor.getId()) : cursor.getId();
+            criteria = criteria.orOperator(
+                    Criteria.where("createdAt").lt(cursor.getCreatedAt()),
+                    new Criteria().andOperator(
+                            Criteria.where("createdAt").is(cursor.getCreatedAt()),
+                            Criteria.where("_id").lt(cursorId)));
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "_id")))
+                .limit(limit);
+        return mongoTemplate.find(query, Notification.class);
+    }
+}
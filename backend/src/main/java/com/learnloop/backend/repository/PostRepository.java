@@ -5,7 +5,7 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 
 import java.util.List;
 
-public interface PostRepository extends MongoRepository<Post, String> {
+public interface PostRepository extends MongoRepository<Post, String>, PostRepositoryCustom {
     List<Post> findByUserId(String userId);
     List<Post> findByUserIdIn(List<String> userIds);
-}
\ No newline at end of file
+}
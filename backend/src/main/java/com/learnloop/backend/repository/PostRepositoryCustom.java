@@ -0,0 +1,27 @@
+package com.learnloop.backend.repository;
+
+import com.learnloop.backend.model.Post;
+import com.learnloop.backend.model.PostView;
+import com.learnloop.backend.util.FeedCursor;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface PostRepositoryCustom {
+    // Newest first, strictly after the cursor; served by the {userId, createdAt} index
+    List<PostView> findViewPageByUserIdIn(Collection<String> userIds, FeedCursor cursor, int limit);
+
+    // In no particular order; ids that do not exist are left out
+    List<PostView> findViewsByIdIn(Collection<String> ids);
+
+    // Same order, read lazily from an open cursor; the caller must close the stream
+    Stream<PostView> streamViewsByUserIdIn(Collection<String> userIds, FeedCursor cursor);
+
+    // Sets the description, and the media when not null, if userId owns the post; false otherwise
+    boolean updateContent(String postId, String userId, String description, List<String> mediaUrls);
+
+    // Only id, userId, createdAt and the counters, e.g. for timelines and ranking
+    List<Post> findSummariesByIdIn(Collection<String> ids);
+    List<Post> findSummariesByUserIdIn(Collection<String> userIds, int limit);
+}
@@ -0,0 +1,110 @@
+package com.learnloop.backend.repository;
+
+import com.learnloop.backend.model.Post;
+import com.learnloop.backend.model.PostView;
+import com.learnloop.backend.util.FeedCursor;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.ProjectionOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class PostRepositoryImpl implements PostRepositoryCustom {
+
+    private static final String[] SUMMARY_FIELDS = {"_id", "userId", "createdAt", "likeCount", "likeFlushes", "commentCount"};
+    private static final int STREAM_BATCH_SIZE = 100;
+    // Everything the feed renders; who liked a post is looked up per viewer in "post_likes"
+    private static final ProjectionOperation VIEW_PROJECTION = Aggregation.project(
+            "userId", "description", "mediaUrls", "createdAt", "likeCount", "likeFlushes", "commentCount", "recentComments", "version");
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "_id"));
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<PostView> findViewPageByUserIdIn(Collection<String> userIds, FeedCursor cursor, int limit) {
+        return aggregateViews(
+                Aggregation.match(pageCriteria(userIds, cursor)),
+                Aggregation.sort(NEWEST_FIRST),
+                Aggregation.limit(limit),
+                VIEW_PROJECTION);
+    }
+
+    @Override
+    public List<PostView> findViewsByIdIn(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return aggregateViews(Aggregation.match(Criteria.where("_id").in(ids)), VIEW_PROJECTION);
+    }
+
+    @Override
+    public Stream<PostView> streamViewsByUserIdIn(Collection<String> userIds, FeedCursor cursor) {
+        AggregationOptions options = AggregationOptions.builder().cursorBatchSize(STREAM_BATCH_SIZE).build();
+        return mongoTemplate.aggregateStream(
+                Aggregation.newAggregation(Post.class,
+                        Aggregation.match(pageCriteria(userIds, cursor)),
+                        Aggregation.sort(NEWEST_FIRST),
+                        VIEW_PROJECTION).withOptions(options),
+                PostView.class);
+    }
+
+    @Override
+    public boolean updateContent(String postId, String userId, String description, List<String> mediaUrls) {
+        Update update = new Update().set("description", description).set("updatedAt", LocalDateTime.now());
+        if (mediaUrls != null) {
+            update.set("mediaUrls", mediaUrls);
+        }
+        Query owned = new Query(Criteria.where("_id").is(postId).and("userId").is(userId));
+        return mongoTemplate.updateFirst(owned, update, Post.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public List<Post> findSummariesByIdIn(Collection<String> ids) {
+        Query query = new Query(Criteria.where("_id").in(ids));
+        query.fields().include(SUMMARY_FIELDS);
+        return mongoTemplate.find(query, Post.class);
+    }
+
+    @Override
+    public List<Post> findSummariesByUserIdIn(Collection<String> userIds, int limit) {
+        Query query = new Query(pageCriteria(userIds, null)).with(NEWEST_FIRST).limit(limit);
+        query.fields().include(SUMMARY_FIELDS);
+        return mongoTemplate.find(query, Post.class);
+    }
+
+    private List<PostView> aggregateViews(AggregationOperation... operations) {
+        return mongoTemplate.aggregate(Aggregation.newAggregation(Post.class, operations), PostView.class)
+                .getMappedResults();
+    }
+
+    static Criteria pageCriteria(Collection<String> userIds, FeedCursor cursor) {
+        Criteria criteria = Criteria.where("userId").in(userIds);
+        if (cursor == null) {
+            return criteria;
+        }
+        Object cursorId = ObjectId.isValid(cursor.getId()) ? new ObjectId(cursor.getId()) : cursor.getId();
+        if (cursor.getCreatedAt() == null) {
+            // Undated posts sort after every dated one, so only the id decides
+            return criteria.and("createdAt").is(null).and("_id").lt(cursorId);
+        }
+        return criteria.orOperator(
+                Criteria.where("createdAt").is(null),
+                Criteria.where("createdAt").lt(cursor.getCreatedAt()),
+                new Criteria().andOperator(
+                        Criteria.where("createdAt").is(cursor.getCreatedAt()),
+                        Criteria.where("_id").lt(cursorId)));
+    }
+}
@@ -0,0 +1,7 @@
+package com.learnloop.backend.repository;
+
+import com.learnloop.backend.model.Timeline;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface TimelineRepository extends MongoRepository<Timeline, String> {
+}
@@ -2,12 +2,17 @@ package com.learnloop.backend.repository;
 
 import com.learnloop.backend.model.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface UserRepository extends MongoRepository<User, String> {
+public interface UserRepository extends MongoRepository<User, String>, UserRepositoryCustom {
     Optional<User> findByUsername(String username);  // Find by username
     Optional<User> findByEmail(String email);       // Find by email
-    List<User> findByIdIn(List<String> ids);  // Fetch multiple users by IDs
-}
\ No newline at end of file
+
+    // Only name, username and picture are loaded, enough to render authors, commenters and suggestions
+    @Query(value = "{ '_id': { $in: ?0 } }", fields = "{ 'name': 1, 'username': 1, 'profilePicturePath': 1 }")
+    List<User> findSummariesByIdIn(Collection<String> ids);
+}
@@ -0,0 +1,19 @@
+package com.learnloop.backend.repository;
+
+import com.learnloop.backend.dto.PublicProfileDTO;
+
+/**
+ * Field-level reads and updates for existing users. Saving a whole User would write back
+ * followerCount / followingCount as they were when the user was loaded and
+ * undo concurrent follows.
+ */
+public interface UserRepositoryCustom {
+    void addPost(String userId, String postId);
+    void removePost(String userId, String postId);
+    void updateNameAndBio(String userId, String name, String bio);
+    void updateProfilePicture(String userId, String profilePicturePath);
+
+    // The public fields plus the post count, without loading any of the ID arrays
+    PublicProfileDTO findPublicProfileById(String userId);
+    PublicProfileDTO findPublicProfileByUsername(String username);
+}
@@ -0,0 +1,72 @@
+package com.learnloop.backend.repository;
+
+import com.learnloop.backend.dto.PublicProfileDTO;
+import com.learnloop.backend.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collections;
+
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void addPost(String userId, String postId) {
+        update(userId, new Update().addToSet("posts", postId));
+    }
+
+    @Override
+    public void removePost(String userId, String postId) {
+        update(userId, new Update().pull("posts", postId));
+    }
+
+    // A null bio is removed
+    @Override
+    public void updateNameAndBio(String userId, String name, String bio) {
+        Update update = new Update().set("name", name);
+        if (bio != null) {
+            update.set("bio", bio);
+        } else {
+            update.unset("bio");
+        }
+        update(userId, update);
+    }
+
+    @Override
+    public void updateProfilePicture(String userId, String profilePicturePath) {
+        update(userId, new Update().set("profilePicturePath", profilePicturePath));
+    }
+
+    @Override
+    public PublicProfileDTO findPublicProfileById(String userId) {
+        return findPublicProfile(Criteria.where("_id").is(userId));
+    }
+
+    @Override
+    public PublicProfileDTO findPublicProfileByUsername(String username) {
+        return findPublicProfile(Criteria.where("username").is(username));
+    }
+
+    private PublicProfileDTO findPublicProfile(Criteria criteria) {
+        TypedAggregation<User> aggregation = Aggregation.newAggregation(User.class,
+                Aggregation.match(criteria),
+                Aggregation.limit(1),
+                Aggregation.project("name", "username", "bio", "profilePicturePath", "followerCount", "followingCount")
+                        .and(ArrayOperators.Size.lengthOfArray(
+                                ConditionalOperators.ifNull("posts").then(Collections.emptyList()))).as("postCount"));
+        return mongoTemplate.aggregate(aggregation, PublicProfileDTO.class).getUniqueMappedResult();
+    }
+
+    private void update(String userId, Update update) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(userId)), update, User.class);
+    }
+}
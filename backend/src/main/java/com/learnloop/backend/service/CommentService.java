@@ -0,0 +1,120 @@
+package com.learnloop.backend.service;
+
+import com.learnloop.backend.event.CommentAddedEvent;
+import com.learnloop.backend.event.CommentDeletedEvent;
+import com.learnloop.backend.model.Comment;
+import com.learnloop.backend.model.Post;
+import com.learnloop.backend.model.PostView;
+import com.learnloop.backend.repository.CommentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Comments live in their own collection. The post only keeps commentCount and
+ * a preview of the newest RECENT_COMMENTS comments, both maintained with
+ * single-document atomic updates. A comment is written or removed in one
+ * outbox transaction with its event.
+ */
+@Service
+public class CommentService {
+
+    public static final int RECENT_COMMENTS = 3;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private PostCacheService postCacheService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    // Returns null when the post does not exist
+    public Comment addComment(String postId, String userId, String content) {
+        PostView post = postCacheService.get(postId);
+        if (post == null) {
+            return null;
+        }
+
+        Comment draft = new Comment();
+        draft.setPostId(postId);
+        draft.setUserId(userId);
+        draft.setContent(content);
+        draft.setCreatedAt(LocalDateTime.now());
+        Comment comment = outboxService.writeWithEvent(() -> commentRepository.save(draft),
+                saved -> new CommentAddedEvent(saved, post.getUserId()));
+
+        Update update = new Update().inc("commentCount", 1).set("updatedAt", LocalDateTime.now())
+                .push("recentComments").slice(-RECENT_COMMENTS).each(toPreview(comment));
+        mongoTemplate.updateFirst(new Query(where("_id").is(postId)), update, Post.class);
+        postCacheService.invalidate(postId);
+        return comment;
+    }
+
+    public Comment findComment(String commentId) {
+        return commentRepository.findById(commentId).orElse(null);
+    }
+
+    public void updateContent(Comment comment, String content) {
+        Query owned = new Query(where("_id").is(comment.getId()).and("userId").is(comment.getUserId()));
+        mongoTemplate.updateFirst(owned, new Update().set("content", content), Comment.class);
+        mongoTemplate.updateFirst(
+                new Query(where("_id").is(comment.getPostId()).and("recentComments.id").is(comment.getId())),
+                new Update().set("recentComments.$.content", content).set("updatedAt", LocalDateTime.now()),
+                Post.class);
+        postCacheService.invalidate(comment.getPostId());
+    }
+
+    public void deleteComment(Comment comment) {
+        // Without the post there is nobody left to tell; its cleanup removes the comments
+        PostView commented = postCacheService.get(comment.getPostId());
+        Query owned = new Query(where("_id").is(comment.getId()).and("userId").is(comment.getUserId()));
+        boolean removed = outboxService.writeWithEvent(
+                () -> mongoTemplate.remove(owned, Comment.class).getDeletedCount() > 0,
+                deleted -> deleted && commented != null ? new CommentDeletedEvent(comment, commented.getUserId()) : null);
+        if (!removed) {
+            return;
+        }
+        Query post = new Query(where("_id").is(comment.getPostId()));
+        mongoTemplate.updateFirst(post, new Update().inc("commentCount", -1).set("updatedAt", LocalDateTime.now()), Post.class);
+
+        // Refill the preview only when the deleted comment was part of it
+        Query inPreview = new Query(where("_id").is(comment.getPostId()).and("recentComments.id").is(comment.getId()));
+        if (mongoTemplate.exists(inPreview, Post.class)) {
+            mongoTemplate.updateFirst(post, new Update().set("recentComments", recentPreview(comment.getPostId())), Post.class);
+        }
+        postCacheService.invalidate(comment.getPostId());
+    }
+
+    // The newest comments of a post, oldest first, in the shape stored on the post
+    public List<Post.Comment> recentPreview(String postId) {
+        List<Post.Comment> preview = commentRepository.findLatestByPostId(postId, RECENT_COMMENTS).stream()
+                .map(CommentService::toPreview)
+                .collect(Collectors.toCollection(ArrayList::new));
+        Collections.reverse(preview);
+        return preview;
+    }
+
+    private static Post.Comment toPreview(Comment comment) {
+        Post.Comment preview = new Post.Comment();
+        preview.setId(comment.getId());
+        preview.setUserId(comment.getUserId());
+        preview.setContent(comment.getContent());
+        preview.setCreatedAt(comment.getCreatedAt());
+        return preview;
+    }
+}
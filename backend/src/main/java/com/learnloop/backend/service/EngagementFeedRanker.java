@@ -0,0 +1,38 @@
+package com.learnloop.backend.service;
+
+import com.learnloop.backend.model.Post;
+import org.springframework.stereotype.Component;
+
+/**
+ * Default ranker: exponential recency decay, engagement velocity (likes and
+ * comments per hour, comments weighted double) and affinity to the author.
+ */
+@Component
+public class EngagementFeedRanker implements FeedRanker {
+
+    private static final double HALF_LIFE_HOURS = 24.0;
+    private static final double DECAY = Math.log(2) / HALF_LIFE_HOURS;
+
+    private static final double RECENCY_WEIGHT = 1.0;
+    private static final double VELOCITY_WEIGHT = 0.6;
+    private static final double AFFINITY_WEIGHT = 0.4;
+    private static final double OWN_POST_BOOST = 0.2;
+    private static final double VELOCITY_SATURATION = 5.0;
+
+    @Override
+    public double score(Post candidate, RankingContext context) {
+        double ageHours = context.ageHours(candidate.getCreatedAt());
+        double recency = Math.exp(-DECAY * ageHours);
+
+        // Engagement per hour, squashed into [0, 1) so a viral post cannot drown everything else
+        double engagementRate = (candidate.getLikeCount() + 2.0 * candidate.getCommentCount()) / (ageHours + 2.0);
+        double velocity = engagementRate / (engagementRate + VELOCITY_SATURATION);
+
+        double affinity = context.affinity(candidate.getUserId());
+        if (candidate.getUserId() != null && candidate.getUserId().equals(context.getViewerId())) {
+            affinity += OWN_POST_BOOST;
+        }
+
+        return RECENCY_WEIGHT * recency + VELOCITY_WEIGHT * velocity + AFFINITY_WEIGHT * affinity;
+    }
+}
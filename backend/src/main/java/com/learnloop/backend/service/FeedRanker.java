@@ -0,0 +1,15 @@
+package com.learnloop.backend.service;
+
+import com.learnloop.backend.model.Post;
+
+/**
+ * Scores feed candidates; higher scores rank first. Register a different
+ * implementation as a bean to change how the ranked feed is ordered.
+ *
+ * Candidates only carry id, userId, createdAt, likeCount and commentCount.
+ * score is called once per candidate on the request thread, so it must be
+ * cheap and must not touch the database.
+ */
+public interface FeedRanker {
+    double score(Post candidate, RankingContext context);
+}
@@ -0,0 +1,181 @@
+package com.learnloop.backend.service;
+
+import com.learnloop.backend.event.CommentAddedEvent;
+import com.learnloop.backend.event.DomainEvent;
+import com.learnloop.backend.event.DomainEventConsumer;
+import com.learnloop.backend.event.LikeToggledEvent;
+import com.learnloop.backend.model.AuthorAffinity;
+import com.learnloop.backend.model.Post;
+import com.learnloop.backend.repository.AuthorAffinityRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Service
+public class FeedRankingService implements DomainEventConsumer {
+
+    // Far more than one viewer can add to one author's counter while an event waits to be redelivered
+    static final int RECENT_EVENTS = 50;
+
+    @Autowired
+    private FeedRanker feedRanker;
+
+    @Autowired
+    private AuthorAffinityRepository authorAffinityRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public String getConsumerName() {
+        return "authorAffinity";
+    }
+
+    // Keeps the viewer -> author interaction counter up to date (likes +1/-1, comments +2). Events the
+    // counter has already added are left out, and the rest of the batch is summed per viewer and author
+    // and written in one bulk, together with their ids. Each write only matches while none of those ids
+    // is on the counter, so a concurrent redelivery fails the batch and the retry leaves them out.
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        Map<String, Map<String, Interactions>> byUser = new HashMap<>();
+        for (DomainEvent event : events) {
+            if (event instanceof LikeToggledEvent like) {
+                add(byUser, like.getUserId(), like.getPostOwnerId(), event.getId(), like.isLiked() ? 1 : -1);
+            } else if (event instanceof CommentAddedEvent added) {
+                add(byUser, added.getComment().getUserId(), added.getPostOwnerId(), event.getId(), 2);
+            }
+        }
+        if (byUser.isEmpty()) {
+            return;
+        }
+        leaveOutAdded(byUser);
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AuthorAffinity.class);
+        int pending = 0;
+        for (Map.Entry<String, Map<String, Interactions>> user : byUser.entrySet()) {
+            for (Map.Entry<String, Interactions> author : user.getValue().entrySet()) {
+                Interactions interactions = author.getValue();
+                Criteria counter = where("userId").is(user.getKey()).and("authorId").is(author.getKey());
+                Update update = new Update().inc("score", interactions.delta());
+                if (!interactions.byEvent.isEmpty()) {
+                    counter = counter.and("recentEvents").nin(interactions.byEvent.keySet());
+                    update.push("recentEvents").slice(-RECENT_EVENTS).each(interactions.byEvent.keySet().toArray());
+                } else if (interactions.untracked == 0) {
+                    continue;
+                }
+                bulk.upsert(new Query(counter), update);
+                pending++;
+            }
+        }
+        if (pending > 0) {
+            bulk.execute();
+        }
+    }
+
+    private static void add(Map<String, Map<String, Interactions>> byUser, String userId, String authorId,
+                            String eventId, int delta) {
+        if (userId != null && authorId != null && !userId.equals(authorId)) {
+            byUser.computeIfAbsent(userId, id -> new HashMap<>())
+                    .computeIfAbsent(authorId, id -> new Interactions())
+                    .add(eventId, delta);
+        }
+    }
+
+    private void leaveOutAdded(Map<String, Map<String, Interactions>> byUser) {
+        List<Criteria> counters = new ArrayList<>();
+        byUser.forEach((userId, authors) -> counters.add(where("userId").is(userId).and("authorId").in(authors.keySet())));
+        Query query = new Query(new Criteria().orOperator(counters));
+        query.fields().include("userId").include("authorId").include("recentEvents");
+        for (AuthorAffinity affinity : mongoTemplate.find(query, AuthorAffinity.class)) {
+            Interactions interactions = byUser.get(affinity.getUserId()).get(affinity.getAuthorId());
+            if (interactions != null && affinity.getRecentEvents() != null) {
+                interactions.byEvent.keySet().removeAll(affinity.getRecentEvents());
+            }
+        }
+    }
+
+    // One viewer's interactions with one author in a batch, by event id
+    private static final class Interactions {
+        private final Map<String, Integer> byEvent = new LinkedHashMap<>();
+        private int untracked;  // events that were not delivered from the outbox and have no id
+
+        void add(String eventId, int delta) {
+            if (eventId == null) {
+                untracked += delta;
+            } else {
+                byEvent.merge(eventId, delta, Integer::sum);
+            }
+        }
+
+        int delta() {
+            return untracked + byEvent.values().stream().mapToInt(Integer::intValue).sum();
+        }
+    }
+
+    public RankingContext contextFor(String viewerId, Collection<Post> candidates) {
+        Set<String> authorIds = new HashSet<>();
+        for (Post candidate : candidates) {
+            authorIds.add(candidate.getUserId());
+        }
+        Map<String, Long> affinity = new HashMap<>();
+        for (AuthorAffinity entry : authorAffinityRepository.findByUserIdAndAuthorIdIn(viewerId, authorIds)) {
+            affinity.put(entry.getAuthorId(), entry.getScore());
+        }
+        return new RankingContext(viewerId, LocalDateTime.now(), affinity);
+    }
+
+    // Best k candidates, best first. A min-heap of size k keeps this O(n log k).
+    public List<Post> topK(List<Post> candidates, RankingContext context, int k) {
+        if (k <= 0 || candidates.isEmpty()) {
+            return new ArrayList<>();
+        }
+        PriorityQueue<Scored> heap = new PriorityQueue<>(k + 1);
+        for (Post candidate : candidates) {
+            double score = feedRanker.score(candidate, context);
+            if (heap.size() < k) {
+                heap.add(new Scored(candidate, score));
+            } else if (score > heap.peek().score) {
+                heap.poll();
+                heap.add(new Scored(candidate, score));
+            }
+        }
+        List<Post> ranked = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            ranked.add(heap.poll().post);
+        }
+        Collections.reverse(ranked);
+        return ranked;
+    }
+
+    private static final class Scored implements Comparable<Scored> {
+        private final Post post;
+        private final double score;
+
+        Scored(Post post, double score) {
+            this.post = post;
+            this.score = score;
+        }
+
+        @Override
+        public int compareTo(Scored other) {
+            return Double.compare(score, other.score);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.learnloop.backend.service;
+
+import com.learnloop.backend.model.Post;
+import com.learnloop.backend.model.PostView;
+import com.learnloop.backend.model.Timeline;
+import com.learnloop.backend.model.User;
+import com.learnloop.backend.repository.PostRepository;
+import com.learnloop.backend.util.FeedCursor;
+import com.learnloop.backend.util.KWayMerge;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Assembles the home feed from two kinds of sources: the user's precomputed
+ * timeline, which covers regular accounts, and one read-time query over all
+ * followed celebrity accounts. Both are already newest first and are
+ * combined with a k-way merge.
+ *
+ * The ranked feed scores the newest feed.ranking.candidate-size candidates
+ * with the configured FeedRanker and returns the best ones instead.
+ *
+ * The streamed feed skips the timeline and reads every followed author's
+ * posts from one Mongo cursor, so its length is not capped.
+ *
+ * Views come back without the viewer's like state, which the caller adds
+ * through PostLikeService.applyViewerState.
+ */
+@Service
+public class FeedService {
+
+    private static final Comparator<PostView> NEWEST_FIRST =
+            Comparator.comparing(PostView::getCreatedAt, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+                    .thenComparing(PostView::getId).reversed();
+
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private FeedRankingService feedRankingService;
+
+    @Autowired
+    private LikeCounterService likeCounterService;
+
+    @Autowired
+    private PostCacheService postCacheService;
+
+    @Autowired
+    private FollowGraphService followGraphService;
+
+    @Value("${feed.ranking.candidate-size:1000}")
+    private int candidateSize;
+
+    // Up to `count` posts of the user's home feed, newest first, strictly older than the cursor
+    public List<PostView> loadPage(User user, FeedCursor cursor, int count) {
+        List<String> followingIds = followGraphService.followees(user.getId());
+        Set<String> celebrities = timelineService.findCelebrities(followingIds);
+        List<String> fannedOutIds = followingIds.stream()
+                .filter(id -> !celebrities.contains(id))
+                .collect(Collectors.toList());
+
+        List<List<PostView>> sources = new ArrayList<>(2);
+        sources.add(timelinePage(user.getId(), fannedOutIds, cursor, count));
+        if (!celebrities.isEmpty()) {
+            sources.add(postRepository.findViewPageByUserIdIn(celebrities, cursor, count));
+        }
+        return KWayMerge.merge(sources, NEWEST_FIRST, PostView::getId, count);
+    }
+
+    // The chronological feed strictly older than the cursor, pulled from Mongo as the subscriber requests it
+    public Flux<PostView> stream(User user, FeedCursor cursor) {
+        List<String> authorIds = new ArrayList<>(followGraphService.followees(user.getId()));
+        authorIds.add(user.getId());
+        return Flux.using(
+                        () -> postRepository.streamViewsByUserIdIn(authorIds, cursor),
+                        Flux::fromStream,
+                        Stream::close)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    // The best `count` posts among the newest candidates, best first
+    public List<PostView> loadRankedPage(User user, int count) {
+        List<String> followingIds = followGraphService.followees(user.getId());
+        Set<String> celebrities = timelineService.findCelebrities(followingIds);
+        List<String> fannedOutIds = followingIds.stream()
+                .filter(id -> !celebrities.contains(id))
+                .collect(Collectors.toList());
+
+        Timeline timeline = timelineService.getOrRebuild(user.getId(), fannedOutIds);
+        List<String> timelineIds = timeline.getEntries().stream()
+                .limit(candidateSize)
+                .map(Timeline.Entry::getPostId)
+                .collect(Collectors.toList());
+
+        List<Post> candidates = new ArrayList<>(postRepository.findSummariesByIdIn(timelineIds));
+        if (!celebrities.isEmpty()) {
+            Set<String> seen = candidates.stream().map(Post::getId).collect(Collectors.toSet());
+            for (Post post : postRepository.findSummariesByUserIdIn(celebrities, candidateSize)) {
+                if (seen.add(post.getId())) {
+                    candidates.add(post);
+                }
+            }
+        }
+
+        likeCounterService.applyPending(candidates);
+        RankingContext context = feedRankingService.contextFor(user.getId(), candidates);
+        List<Post> top = feedRankingService.topK(candidates, context, count);
+        return loadInOrder(top.stream().map(Post::getId).collect(Collectors.toList()));
+    }
+
+    private List<PostView> timelinePage(String userId, List<String> followingIds, FeedCursor cursor, int count) {
+        Timeline timeline = timelineService.getOrRebuild(userId, followingIds);
+        List<Timeline.Entry> entries = TimelineService.entriesAfter(timeline, cursor, timeline.getEntries().size());
+        List<PostView> posts = new ArrayList<>(count);
+
+        // Entries of deleted posts load nothing, so keep reading until the page is full. A full page
+        // ends on the last entry read, which is where the next cursor picks up.
+        int consumed = 0;
+        while (posts.size() < count && consumed < entries.size()) {
+            List<Timeline.Entry> chunk = entries.subList(consumed, Math.min(entries.size(), consumed + count - posts.size()));
+            consumed += chunk.size();
+            posts.addAll(loadInOrder(chunk.stream().map(Timeline.Entry::getPostId).collect(Collectors.toList())));
+        }
+
+        if (posts.size() < count && timeline.getEntries().size() >= timelineService.getMaxSize()) {
+            // The timeline is capped, anything older comes straight from the posts collection
+            Timeline.Entry last = consumed == 0 ? null : entries.get(consumed - 1);
+            FeedCursor from = last != null ? new FeedCursor(last.getCreatedAt(), last.getPostId()) : cursor;
+            List<String> authorIds = new ArrayList<>(followingIds);
+            authorIds.add(userId);
+            posts.addAll(postRepository.findViewPageByUserIdIn(authorIds, from, count - posts.size()));
+        }
+        return posts;
+    }
+
+    private List<PostView> loadInOrder(List<String> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<String, PostView> byId = postCacheService.getAll(ids);
+        List<PostView> posts = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            PostView post = byId.get(id);
+            if (post != null) {
+                posts.add(post);
+            }
+        }
+        return posts;
+    }
+}
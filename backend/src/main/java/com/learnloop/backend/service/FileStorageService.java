@@ -2,9 +2,14 @@
 package com.learnloop.backend.service;
 
 import com.learnloop.backend.config.SupabaseConfig;
+import com.learnloop.backend.event.DomainEvent;
+import com.learnloop.backend.event.DomainEventConsumer;
+import com.learnloop.backend.event.PostDeletedEvent;
 import okhttp3.*;
 import org.apache.tika.Tika;
 import org.apache.tika.metadata.Metadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -17,7 +22,9 @@ import java.util.List;
 import java.util.UUID;
 
 @Service
-public class FileStorageService {
+public class FileStorageService implements DomainEventConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileStorageService.class);
 
     @Autowired
     private OkHttpClient okHttpClient;
@@ -30,6 +37,27 @@ public class FileStorageService {
     private static final List<String> ALLOWED_VIDEO_TYPES = Arrays.asList("video/mp4", "video/quicktime");
     private static final long MAX_VIDEO_SIZE = 10 * 1024 * 1024; // 10MB in bytes
 
+    @Override
+    public String getConsumerName() {
+        return "mediaCleanup";
+    }
+
+    // Media of deleted posts is removed from storage in the background
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            if (event instanceof PostDeletedEvent deleted && deleted.getPost().getMediaUrls() != null) {
+                for (String mediaUrl : deleted.getPost().getMediaUrls()) {
+                    try {
+                        deleteFile(mediaUrl);
+                    } catch (IOException e) {
+                        logger.warn("Failed to delete media file {}: {}", mediaUrl, e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
     public List<String> storeFiles(MultipartFile[] files) throws Exception {
         if (files.length > 3) {
             throw new IllegalArgumentException("Maximum 3 files allowed.");
@@ -0,0 +1,442 @@
+package com.learnloop.backend.service;
+
+import com.learnloop.backend.model.Follow;
+import com.learnloop.backend.model.User;
+import com.learnloop.backend.util.StatsSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * The whole follow graph in memory. User IDs are interned to dense ints and
+ * every user's followees and followers are kept as sorted int arrays, so a
+ * follow check is a binary search and a count is an array read.
+ *
+ * The graph is loaded from the follows collection in the background once
+ * the app is up. Until it is ready the lookups fall back to Mongo. Follow
+ * changes made during a (re)load are queued and replayed on top of the
+ * loaded graph.
+ */
+@Service
+public class FollowGraphService implements StatsSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(FollowGraphService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Graph graph = new Graph();
+    private boolean ready;
+    private List<String[]> pendingChanges = new ArrayList<>(); // {followerId, followeeId, "+" or "-"}, while loading
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startLoading() {
+        Thread thread = new Thread(this::load, "follow-graph-load");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Rebuilds the graph from Mongo, e.g. after follows were written behind its back by a migration
+    public void reload() {
+        load();
+    }
+
+    private synchronized void load() {
+        lock.writeLock().lock();
+        try {
+            if (pendingChanges == null) {
+                pendingChanges = new ArrayList<>();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Graph loaded = new Graph();
+        try {
+            Query query = new Query();
+            query.fields().include("followerId", "followeeId");
+            try (Stream<Follow> follows = mongoTemplate.stream(query, Follow.class)) {
+                follows.forEach(follow ->
+                        loaded.addEdge(loaded.intern(follow.getFollowerId()), loaded.intern(follow.getFolloweeId())));
+            }
+        } catch (Exception e) {
+            logger.warn("Could not load the follow graph, {}: {}",
+                    isReady() ? "keeping the previous one" : "staying on Mongo lookups", e.getMessage());
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (String[] change : pendingChanges) {
+                apply(loaded, change[0], change[1], "+".equals(change[2]));
+            }
+            pendingChanges = null;
+            graph = loaded;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Follow graph loaded: {} users, {} follows", loaded.size, loaded.edges);
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return ready;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void onFollow(String followerId, String followeeId) {
+        record(followerId, followeeId, true);
+    }
+
+    public void onUnfollow(String followerId, String followeeId) {
+        record(followerId, followeeId, false);
+    }
+
+    private void record(String followerId, String followeeId, boolean follow) {
+        lock.writeLock().lock();
+        try {
+            if (ready) {
+                apply(graph, followerId, followeeId, follow);
+            }
+            if (pendingChanges != null) {
+                pendingChanges.add(new String[]{followerId, followeeId, follow ? "+" : "-"});
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void apply(Graph graph, String followerId, String followeeId, boolean follow) {
+        if (follow) {
+            graph.addEdge(graph.intern(followerId), graph.intern(followeeId));
+        } else {
+            int follower = graph.indexOf(followerId);
+            int followee = graph.indexOf(followeeId);
+            if (follower >= 0 && followee >= 0) {
+                graph.removeEdge(follower, followee);
+            }
+        }
+    }
+
+    public boolean isFollowing(String followerId, String followeeId) {
+        lock.readLock().lock();
+        try {
+            if (ready) {
+                int follower = graph.indexOf(followerId);
+                int followee = graph.indexOf(followeeId);
+                return follower >= 0 && followee >= 0 && graph.out.contains(follower, followee);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return mongoTemplate.exists(new Query(where("followerId").is(followerId).and("followeeId").is(followeeId)), Follow.class);
+    }
+
+    public int followerCount(String userId) {
+        lock.readLock().lock();
+        try {
+            if (ready) {
+                int user = graph.indexOf(userId);
+                return user >= 0 ? graph.in.degree(user) : 0;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        User user = loadCounters(userId);
+        return user != null ? user.getFollowerCount() : 0;
+    }
+
+    public int followingCount(String userId) {
+        lock.readLock().lock();
+        try {
+            if (ready) {
+                int user = graph.indexOf(userId);
+                return user >= 0 ? graph.out.degree(user) : 0;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        User user = loadCounters(userId);
+        return user != null ? user.getFollowingCount() : 0;
+    }
+
+    // The users the given user follows, in no particular order
+    public List<String> followees(String userId) {
+        lock.readLock().lock();
+        try {
+            if (ready) {
+                return graph.ids(graph.out, graph.indexOf(userId));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return neighbours("followerId", userId, "followeeId", Follow::getFolloweeId);
+    }
+
+    // The users following the given user, in no particular order
+    public List<String> followers(String userId) {
+        lock.readLock().lock();
+        try {
+            if (ready) {
+                return graph.ids(graph.in, graph.indexOf(userId));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return neighbours("followeeId", userId, "followerId", Follow::getFollowerId);
+    }
+
+    // Everyone followed by someone the user follows, with how many of the user's followees follow them.
+    // The user and the accounts they already follow are left out.
+    public Map<String, Integer> friendsOfFriends(String userId) {
+        Map<String, Integer> counts = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            if (ready) {
+                int user = graph.indexOf(userId);
+                if (user < 0) {
+                    return counts;
+                }
+                Map<Integer, Integer> byIndex = new HashMap<>();
+                int[] followees = graph.out.lists[user];
+                for (int i = 0; i < graph.out.degree(user); i++) {
+                    int followee = followees[i];
+                    int[] candidates = graph.out.lists[followee];
+                    for (int j = 0; j < graph.out.degree(followee); j++) {
+                        int candidate = candidates[j];
+                        if (candidate != user && !graph.out.contains(user, candidate)) {
+                            byIndex.merge(candidate, 1, Integer::sum);
+                        }
+                    }
+                }
+                byIndex.forEach((candidate, count) -> counts.put(graph.userIds[candidate], count));
+                return counts;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Set<String> followees = new HashSet<>(followees(userId));
+        if (followees.isEmpty()) {
+            return counts;
+        }
+        Query query = new Query(where("followerId").in(followees));
+        query.fields().include("followeeId");
+        for (Follow follow : mongoTemplate.find(query, Follow.class)) {
+            String candidate = follow.getFolloweeId();
+            if (!candidate.equals(userId) && !followees.contains(candidate)) {
+                counts.merge(candidate, 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    // The `limit` users with the most followers, most followed first; empty until the graph is loaded
+    public List<String> mostFollowed(int limit, Set<String> exclude) {
+        lock.readLock().lock();
+        try {
+            List<String> result = new ArrayList<>();
+            if (!ready || limit <= 0) {
+                return result;
+            }
+            PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1,
+                    (a, b) -> Integer.compare(graph.in.degree(a), graph.in.degree(b)));
+            for (int user = 0; user < graph.size; user++) {
+                if (graph.in.degree(user) == 0 || exclude.contains(graph.userIds[user])) {
+                    continue;
+                }
+                if (top.size() < limit) {
+                    top.add(user);
+                } else if (graph.in.degree(user) > graph.in.degree(top.peek())) {
+                    top.poll();
+                    top.add(user);
+                }
+            }
+            while (!top.isEmpty()) {
+                result.add(graph.userIds[top.poll()]);
+            }
+            Collections.reverse(result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private User loadCounters(String userId) {
+        Query query = new Query(where("_id").is(userId));
+        query.fields().include("followerCount", "followingCount");
+        return mongoTemplate.findOne(query, User.class);
+    }
+
+    private List<String> neighbours(String byField, String userId, String otherField, Function<Follow, String> other) {
+        Query query = new Query(where(byField).is(userId));
+        query.fields().include(otherField);
+        List<String> ids = new ArrayList<>();
+        for (Follow follow : mongoTemplate.find(query, Follow.class)) {
+            ids.add(other.apply(follow));
+        }
+        return ids;
+    }
+
+    @Override
+    public String getStatsName() {
+        return "followGraph";
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("ready", ready);
+            stats.put("users", graph.size);
+            stats.put("follows", graph.edges);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static final class Graph {
+        final Map<String, Integer> index = new HashMap<>();
+        String[] userIds = new String[1024];
+        final Adjacency out = new Adjacency(); // follower -> followees
+        final Adjacency in = new Adjacency();  // followee -> followers
+        int size;
+        long edges;
+
+        int intern(String userId) {
+            Integer existing = index.get(userId);
+            if (existing != null) {
+                return existing;
+            }
+            if (size == userIds.length) {
+                userIds = Arrays.copyOf(userIds, size * 2);
+            }
+            userIds[size] = userId;
+            index.put(userId, size);
+            out.ensureCapacity(size + 1);
+            in.ensureCapacity(size + 1);
+            return size++;
+        }
+
+        int indexOf(String userId) {
+            Integer existing = index.get(userId);
+            return existing != null ? existing : -1;
+        }
+
+        void addEdge(int follower, int followee) {
+            if (out.add(follower, followee)) {
+                in.add(followee, follower);
+                edges++;
+            }
+        }
+
+        void removeEdge(int follower, int followee) {
+            if (out.remove(follower, followee)) {
+                in.remove(followee, follower);
+                edges--;
+            }
+        }
+
+        List<String> ids(Adjacency adjacency, int user) {
+            if (user < 0) {
+                return new ArrayList<>();
+            }
+            int degree = adjacency.degree(user);
+            List<String> result = new ArrayList<>(degree);
+            int[] neighbours = adjacency.lists[user];
+            for (int i = 0; i < degree; i++) {
+                result.add(userIds[neighbours[i]]);
+            }
+            return result;
+        }
+    }
+
+    // One sorted, growable int array per node
+    private static final class Adjacency {
+        private static final int[] EMPTY = new int[0];
+
+        int[][] lists = new int[1024][];
+        int[] degrees = new int[1024];
+
+        void ensureCapacity(int nodes) {
+            if (nodes > lists.length) {
+                int capacity = Math.max(nodes, lists.length * 2);
+                lists = Arrays.copyOf(lists, capacity);
+                degrees = Arrays.copyOf(degrees, capacity);
+            }
+        }
+
+        int degree(int node) {
+            return degrees[node];
+        }
+
+        boolean contains(int node, int value) {
+            int[] list = lists[node];
+            return list != null && Arrays.binarySearch(list, 0, degrees[node], value) >= 0;
+        }
+
+        boolean add(int node, int value) {
+            int[] list = lists[node] != null ? lists[node] : EMPTY;
+            int degree = degrees[node];
+            int position = Arrays.binarySearch(list, 0, degree, value);
+            if (position >= 0) {
+                return false;
+            }
+            position = -position - 1;
+            if (degree == list.length) {
+                list = Arrays.copyOf(list, Math.max(4, degree * 2));
+                lists[node] = list;
+            }
+            System.arraycopy(list, position, list, position + 1, degree - position);
+            list[position] = value;
+            degrees[node] = degree + 1;
+            return true;
+        }
+
+        boolean remove(int node, int value) {
+            int[] list = lists[node];
+            int degree = degrees[node];
+            int position = list != null ? Arrays.binarySearch(list, 0, degree, value) : -1;
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(list, position + 1, list, position, degree - position - 1);
+            degrees[node] = degree - 1;
+            return true;
+        }
+    }
+}
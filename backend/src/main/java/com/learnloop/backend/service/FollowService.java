@@ -0,0 +1,82 @@
+package com.learnloop.backend.service;
+
+import com.learnloop.backend.event.FollowChangedEvent;
+import com.learnloop.backend.model.Follow;
+import com.learnloop.backend.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.MongoTransactionException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Follows are edges in the "follows" collection, unique per follower and
+ * followee, so a repeated or concurrent follow cannot create a second edge.
+ * followerCount / followingCount on both users only move when an edge was
+ * actually inserted or deleted, and the in-memory graph follows along.
+ * Everything else (notifications, timelines, suggestions) reacts to the
+ * FollowChangedEvent written with the edge in one outbox transaction.
+ */
+@Service
+public class FollowService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private FollowGraphService followGraphService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    // True when the follow was created, false when it already existed
+    public boolean follow(String followerId, String followeeId) {
+        boolean created;
+        try {
+            created = outboxService.writeWithEvent(
+                    () -> mongoTemplate.upsert(edge(followerId, followeeId),
+                            new Update().setOnInsert("createdAt", LocalDateTime.now()), Follow.class)
+                            .getUpsertedId() != null,
+                    inserted -> inserted ? new FollowChangedEvent(followerId, followeeId, true) : null);
+        } catch (DuplicateKeyException | MongoTransactionException e) {
+            // A concurrent write of the same edge won
+            created = false;
+        }
+        if (created) {
+            adjustCounters(followerId, followeeId, 1);
+            followGraphService.onFollow(followerId, followeeId);
+        }
+        return created;
+    }
+
+    // True when there was a follow to remove
+    public boolean unfollow(String followerId, String followeeId) {
+        boolean removed = outboxService.writeWithEvent(
+                () -> mongoTemplate.remove(edge(followerId, followeeId), Follow.class).getDeletedCount() > 0,
+                deleted -> deleted ? new FollowChangedEvent(followerId, followeeId, false) : null);
+        if (!removed) {
+            return false;
+        }
+        adjustCounters(followerId, followeeId, -1);
+        followGraphService.onUnfollow(followerId, followeeId);
+        return true;
+    }
+
+    private void adjustCounters(String followerId, String followeeId, int delta) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        bulk.updateOne(new Query(where("_id").is(followeeId)), new Update().inc("followerCount", delta));
+        bulk.updateOne(new Query(where("_id").is(followerId)), new Update().inc("followingCount", delta));
+        bulk.execute();
+    }
+
+    private static Query edge(String followerId, String followeeId) {
+        return new Query(where("followerId").is(followerId).and("followeeId").is(followeeId));
+    }
+}
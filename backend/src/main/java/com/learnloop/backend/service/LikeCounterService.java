@@ -0,0 +1,340 @@
+package com.learnloop.backend.service;
+
+import com.learnloop.backend.model.Post;
+import com.learnloop.backend.util.StatsSource;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Write-behind likeCount. Like and unlike deltas go into a per-post LongAdder,
+ * which spreads concurrent updates over striped cells. A scheduled flush turns
+ * them into one unordered bulkWrite of $inc updates, so a viral post takes one
+ * counter write per flush instead of one per like. Readers add the pending
+ * delta to the persisted count.
+ *
+ * Every flush is numbered, and its bulkWrite stamps the number on each post it
+ * updates under this instance's key (likeFlushes.<instanceId>). Numbers only
+ * order the flushes of one instance, so each instance reads and resolves its
+ * own stamp and never mistakes another instance's flush for one of its own.
+ * The batches of the last few flushes are kept, and a reader adds a batch only
+ * to a count stamped with an older flush, so the sum is right whether or not
+ * the write has reached the post it read. Moving the deltas from the adders
+ * into a batch happens under a write lock that readers validate against.
+ */
+@Service
+public class LikeCounterService implements StatsSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(LikeCounterService.class);
+    private static final int KEPT_BATCHES = 16;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PostCacheService postCacheService;
+
+    // A stable name per instance keeps its stamp across restarts instead of adding a new one to each post
+    @Value("${likes.counter.instance-id:#{T(java.util.UUID).randomUUID().toString()}}")
+    private String instanceId;
+
+    private final ConcurrentHashMap<String, LongAdder> pending = new ConcurrentHashMap<>();
+    private final StampedLock lock = new StampedLock();
+
+    // Adders dropped from `pending` on the previous flush. A writer may still
+    // hold one for a moment, so they are drained once more before being forgotten.
+    private volatile Map<String, LongAdder> retired = Map.of();
+
+    // The newest flushed batches, oldest first; replaced, never modified, so readers need no lock
+    private volatile List<Batch> batches = List.of();
+    private long lastFlushNumber;
+
+    private final AtomicLong oldestPendingAt = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushedDeltas = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private final AtomicLong requeuedDeltas = new AtomicLong();
+    private volatile int lastBatchSize;
+    private volatile int maxBatchSize;
+    private volatile long lastFlushLagMillis;
+    private volatile long lastFlushDurationMillis;
+
+    public void recordDelta(String postId, long delta) {
+        pending.computeIfAbsent(postId, id -> new LongAdder()).add(delta);
+        if (oldestPendingAt.get() == 0) {
+            oldestPendingAt.compareAndSet(0, System.currentTimeMillis());
+        }
+    }
+
+    // What is not yet part of a count carrying the given likeFlushes stamps (null when never flushed)
+    public long pendingDelta(String postId, Map<String, Long> likeFlushes) {
+        Long likeFlush = likeFlushes != null ? likeFlushes.get(stampKey()) : null;
+        long flushedThrough = likeFlush != null ? likeFlush : 0;
+        long stamp = lock.tryOptimisticRead();
+        long delta = readDelta(postId, flushedThrough);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                delta = readDelta(postId, flushedThrough);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return delta;
+    }
+
+    public long currentCount(String postId, long persistedCount, Map<String, Long> likeFlushes) {
+        return Math.max(0, persistedCount + pendingDelta(postId, likeFlushes));
+    }
+
+    // Replaces each post's persisted likeCount with the merged value
+    public void applyPending(Collection<Post> posts) {
+        for (Post post : posts) {
+            post.setLikeCount((int) currentCount(post.getId(), post.getLikeCount(), post.getLikeFlushes()));
+        }
+    }
+
+    private long readDelta(String postId, long flushedThrough) {
+        long delta = sum(pending.get(postId)) + sum(retired.get(postId));
+        for (Batch batch : batches) {
+            if (batch.number > flushedThrough) {
+                delta += batch.deltas.getOrDefault(postId, 0L);
+            }
+        }
+        return delta;
+    }
+
+    private static long sum(LongAdder adder) {
+        return adder != null ? adder.sum() : 0;
+    }
+
+    @Scheduled(fixedDelayString = "${likes.counter.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        long startedAt = System.currentTimeMillis();
+        for (Batch batch : batches) {
+            if (batch.unresolved) {
+                resolve(batch);
+            }
+        }
+
+        long oldest = oldestPendingAt.getAndSet(0);
+        Batch batch = drain(Math.max(lastFlushNumber + 1, startedAt));
+        if (batch == null) {
+            return;
+        }
+        lastFlushNumber = batch.number;
+
+        List<String> postIds = new ArrayList<>(batch.deltas.keySet());
+        try {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class);
+            for (String postId : postIds) {
+                bulk.updateOne(new Query(where("_id").is(postId)),
+                        new Update().inc("likeCount", batch.deltas.get(postId)).max(stampField(), batch.number));
+            }
+            bulk.execute();
+
+            flushes.incrementAndGet();
+            flushedDeltas.addAndGet(postIds.size());
+            lastBatchSize = postIds.size();
+            maxBatchSize = Math.max(maxBatchSize, postIds.size());
+            lastFlushLagMillis = oldest != 0 ? startedAt - oldest : 0;
+        } catch (BulkOperationException e) {
+            // The other updates were applied; only the failed ones go back
+            failedFlushes.incrementAndGet();
+            Set<String> failed = new HashSet<>();
+            for (BulkWriteError error : e.getErrors()) {
+                failed.add(postIds.get(error.getIndex()));
+            }
+            requeue(batch, failed);
+            logger.warn("Like counter flush failed for {} of {} posts: {}", failed.size(), postIds.size(), e.getMessage());
+        } catch (Exception e) {
+            // Unknown which updates got through; this instance's stamps tell on the next flush
+            failedFlushes.incrementAndGet();
+            replace(batch, batch.markUnresolved());
+            logger.warn("Like counter flush of {} posts failed: {}", postIds.size(), e.getMessage());
+        } finally {
+            lastFlushDurationMillis = System.currentTimeMillis() - startedAt;
+        }
+        // Cached posts carry the old count and stamp; reloading them is cheaper than keeping every batch
+        postIds.forEach(postCacheService::invalidate);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    // Moves every pending delta into a new batch, or returns null when there are none
+    private Batch drain(long number) {
+        long stamp = lock.writeLock();
+        try {
+            Map<String, Long> deltas = new LinkedHashMap<>();
+            for (Map.Entry<String, LongAdder> entry : retired.entrySet()) {
+                add(deltas, entry.getKey(), entry.getValue().sumThenReset());
+            }
+
+            Map<String, LongAdder> idle = new HashMap<>();
+            for (Map.Entry<String, LongAdder> entry : pending.entrySet()) {
+                long delta = entry.getValue().sumThenReset();
+                if (delta == 0) {
+                    idle.put(entry.getKey(), entry.getValue());
+                } else {
+                    add(deltas, entry.getKey(), delta);
+                }
+            }
+            // Posts that stopped receiving likes are dropped so the map does not grow forever
+            idle.entrySet().removeIf(entry -> !pending.remove(entry.getKey(), entry.getValue()));
+            retired = idle;
+
+            if (deltas.isEmpty()) {
+                return null;
+            }
+            Batch batch = new Batch(number, deltas, false);
+            List<Batch> kept = new ArrayList<>(batches);
+            kept.add(batch);
+            // Only resolved batches age out; a post stamped before them has been reloaded since
+            while (kept.size() > KEPT_BATCHES && !kept.get(0).unresolved) {
+                kept.remove(0);
+            }
+            batches = List.copyOf(kept);
+            return batch;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Posts of an unresolved batch that do not carry its stamp never got their update
+    private void resolve(Batch batch) {
+        try {
+            Query query = new Query(new Criteria().andOperator(
+                    where("_id").in(batch.deltas.keySet()),
+                    new Criteria().orOperator(where(stampField()).lt(batch.number), where(stampField()).exists(false))));
+            query.fields().include("_id");
+            Set<String> unapplied = new HashSet<>();
+            mongoTemplate.find(query, Post.class).forEach(post -> unapplied.add(post.getId()));
+            requeue(batch, unapplied);
+        } catch (Exception e) {
+            logger.warn("Could not check like counter flush {}: {}", batch.number, e.getMessage());
+        }
+    }
+
+    // Takes the given posts out of a batch and puts their deltas back into `pending`, in one step for readers
+    private void requeue(Batch batch, Set<String> postIds) {
+        long stamp = lock.writeLock();
+        try {
+            Map<String, Long> applied = new LinkedHashMap<>(batch.deltas);
+            for (String postId : postIds) {
+                Long delta = applied.remove(postId);
+                if (delta != null) {
+                    pending.computeIfAbsent(postId, id -> new LongAdder()).add(delta);
+                    requeuedDeltas.incrementAndGet();
+                }
+            }
+            swap(batch, new Batch(batch.number, applied, false));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        if (!postIds.isEmpty()) {
+            oldestPendingAt.compareAndSet(0, System.currentTimeMillis());
+        }
+    }
+
+    private void replace(Batch batch, Batch replacement) {
+        long stamp = lock.writeLock();
+        try {
+            swap(batch, replacement);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Callers hold the write lock
+    private void swap(Batch batch, Batch replacement) {
+        List<Batch> kept = new ArrayList<>(batches);
+        int index = kept.indexOf(batch);
+        if (index >= 0) {
+            kept.set(index, replacement);
+            batches = List.copyOf(kept);
+        }
+    }
+
+    private String stampField() {
+        return "likeFlushes." + stampKey();
+    }
+
+    // Dots and dollar signs would turn the key into a path or an operator
+    private String stampKey() {
+        return instanceId.replace('.', '_').replace('$', '_');
+    }
+
+    private static void add(Map<String, Long> deltas, String postId, long delta) {
+        if (delta != 0) {
+            deltas.merge(postId, delta, Long::sum);
+        }
+    }
+
+    @Override
+    public String getStatsName() {
+        return "likeCounters";
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        long oldest = oldestPendingAt.get();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("pendingPosts", pending.size());
+        stats.put("currentLagMillis", oldest != 0 ? System.currentTimeMillis() - oldest : 0);
+        stats.put("lastFlushLagMillis", lastFlushLagMillis);
+        stats.put("lastFlushDurationMillis", lastFlushDurationMillis);
+        stats.put("lastBatchSize", lastBatchSize);
+        stats.put("maxBatchSize", maxBatchSize);
+        stats.put("flushes", flushes.get());
+        stats.put("flushedDeltas", flushedDeltas.get());
+        stats.put("failedFlushes", failedFlushes.get());
+        stats.put("requeuedDeltas", requeuedDeltas.get());
+        stats.put("unresolvedBatches", batches.stream().filter(batch -> batch.unresolved).count());
+        return stats;
+    }
+
+    private static final class Batch {
+        final long number;
+        final Map<String, Long> deltas;
+        final boolean unresolved;
+
+        Batch(long number, Map<String, Long> deltas, boolean unresolved) {
+            this.number = number;
+            this.deltas = deltas;
+            this.unresolved = unresolved;
+        }
+
+        Batch markUnresolved() {
+            return new Batch(number, deltas, true);
+        }
+    }
+}
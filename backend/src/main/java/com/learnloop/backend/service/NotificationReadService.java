@@ -0,0 +1,182 @@
+package com.learnloop.backend.service;
+
+import com.learnloop.backend.model.Notification;
+import com.learnloop.backend.model.NotificationReadState;
+import com.mongodb.bulk.BulkWriteResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Read state of the notification inbox, kept as one NotificationReadState
+ * per user: a high-water mark plus the keys read individually above it.
+ * Checking a page costs one lookup whatever the length of the history, and
+ * marking read is an idempotent update of that document.
+ *
+ * After every change the mark is moved up to the oldest unread
+ * notification, and exceptions below it are dropped.
+ *
+ * The unread count is kept in the same document: NotificationService
+ * adjusts it as notifications arrive and go, and marking read takes the
+ * newly read ones off. It is counted from the notifications the first time
+ * it is asked for, and again on "mark all as read" so drift from racing
+ * updates does not last.
+ */
+@Service
+public class NotificationReadService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    public NotificationReadState get(String userId) {
+        NotificationReadState state = mongoTemplate.findById(userId, NotificationReadState.class);
+        if (state == null) {
+            state = new NotificationReadState();
+            state.setUserId(userId);
+        }
+        return state;
+    }
+
+    // Returns how many of them were unread; unknown keys are ignored
+    public int markRead(String userId, Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        mongoTemplate.upsert(new Query(where("_id").is(userId)),
+                new Update().setOnInsert("readKeys", List.of()), NotificationReadState.class);
+        NotificationReadState state = get(userId);
+
+        Query query = new Query(where("userId").is(userId).and("key").in(keys));
+        query.fields().include("key", "createdAt");
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, NotificationReadState.class);
+        int candidates = 0;
+        for (Notification notification : mongoTemplate.find(query, Notification.class)) {
+            if (!state.isRead(notification)) {
+                // Conditional on the key being absent, so a concurrent mark-read of the same key counts once
+                bulk.updateOne(new Query(where("_id").is(userId).and("readKeys.key").ne(notification.getKey())),
+                        new Update().push("readKeys",
+                                new NotificationReadState.ReadKey(notification.getKey(), notification.getCreatedAt())));
+                candidates++;
+            }
+        }
+        if (candidates == 0) {
+            return 0;
+        }
+        BulkWriteResult result = bulk.execute();
+        compact(userId);
+        adjustUnreadCount(userId, -result.getModifiedCount());
+        return result.getModifiedCount();
+    }
+
+    // New activity on a coalesced notification makes it unread again
+    public void markUnread(String userId, String key) {
+        mongoTemplate.updateFirst(new Query(where("_id").is(userId)),
+                new Update().pull("readKeys", Query.query(where("key").is(key))), NotificationReadState.class);
+    }
+
+    // Everything created before the given time becomes read; returns how many were unread
+    public long markAllReadBefore(String userId, LocalDateTime before) {
+        NotificationReadState state = get(userId);
+        if (state.getReadBefore() != null && !state.getReadBefore().isBefore(before)) {
+            return 0;
+        }
+        Criteria unread = new Criteria().andOperator(unreadCriteria(state), where("createdAt").lt(before));
+        long newlyRead = mongoTemplate.count(new Query(unread), Notification.class);
+        advanceTo(userId, before);
+        compact(userId);
+        recountUnread(userId);
+        return newlyRead;
+    }
+
+    // One lookup by ID once the count exists
+    public long unreadCount(String userId) {
+        Query query = new Query(where("_id").is(userId));
+        query.fields().include("unreadCount");
+        NotificationReadState state = mongoTemplate.findOne(query, NotificationReadState.class);
+        if (state == null || state.getUnreadCount() == null) {
+            return recountUnread(userId);
+        }
+        return Math.max(0, state.getUnreadCount());
+    }
+
+    // Only once the count exists; until then the first read counts it
+    public void adjustUnreadCount(String userId, long delta) {
+        if (delta != 0) {
+            mongoTemplate.updateFirst(new Query(where("_id").is(userId).and("unreadCount").exists(true)),
+                    new Update().inc("unreadCount", delta), NotificationReadState.class);
+        }
+    }
+
+    // Unread notifications lie at or above the mark and are not exceptions, which the {userId, createdAt} index narrows to
+    public long recountUnread(String userId) {
+        long count = mongoTemplate.count(new Query(unreadCriteria(get(userId))), Notification.class);
+        mongoTemplate.upsert(new Query(where("_id").is(userId)), new Update().set("unreadCount", count),
+                NotificationReadState.class);
+        return count;
+    }
+
+    // Forces every count to be taken again from the notifications, after they were rewritten in bulk
+    public void resetUnreadCounts() {
+        mongoTemplate.updateMulti(new Query(where("unreadCount").exists(true)), new Update().unset("unreadCount"),
+                NotificationReadState.class);
+    }
+
+    private void compact(String userId) {
+        NotificationReadState state = get(userId);
+        Query oldestUnread = new Query(unreadCriteria(state))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt").and(Sort.by(Sort.Direction.ASC, "_id")))
+                .limit(1);
+        oldestUnread.fields().include("createdAt");
+        Notification oldest = mongoTemplate.findOne(oldestUnread, Notification.class);
+
+        LocalDateTime mark;
+        if (oldest != null) {
+            mark = oldest.getCreatedAt();
+        } else {
+            // All read: keep only the exceptions at the newest timestamp, anything older is covered by the mark
+            mark = state.getReadKeys().stream()
+                    .map(NotificationReadState.ReadKey::getCreatedAt)
+                    .filter(createdAt -> createdAt != null)
+                    .max(LocalDateTime::compareTo)
+                    .orElse(null);
+        }
+        if (mark != null && (state.getReadBefore() == null || mark.isAfter(state.getReadBefore()))) {
+            advanceTo(userId, mark);
+        }
+    }
+
+    private void advanceTo(String userId, LocalDateTime mark) {
+        Query behind = new Query(where("_id").is(userId)
+                .orOperator(where("readBefore").is(null), where("readBefore").lt(mark)));
+        Update update = new Update()
+                .set("readBefore", mark)
+                .pull("readKeys", Query.query(where("createdAt").lt(mark)));
+        mongoTemplate.upsert(behind, update, NotificationReadState.class);
+    }
+
+    private static Criteria unreadCriteria(NotificationReadState state) {
+        Criteria criteria = where("userId").is(state.getUserId());
+        if (state.getReadBefore() != null) {
+            criteria = criteria.and("createdAt").gte(state.getReadBefore());
+        }
+        List<String> readKeys = state.getReadKeys().stream()
+                .map(NotificationReadState.ReadKey::getKey)
+                .collect(Collectors.toList());
+        if (!readKeys.isEmpty()) {
+            criteria = criteria.and("key").nin(readKeys);
+        }
+        return criteria;
+    }
+}
@@ -0,0 +1,548 @@
+package com.learnloop.backend.service;
+
+import com.learnloop.backend.dto.NotificationDTO;
+import com.learnloop.backend.dto.NotificationPushDTO;
+import com.learnloop.backend.dto.UserSummaryDTO;
+import com.learnloop.backend.event.CommentAddedEvent;
+import com.learnloop.backend.event.CommentDeletedEvent;
+import com.learnloop.backend.event.DomainEvent;
+import com.learnloop.backend.event.DomainEventConsumer;
+import com.learnloop.backend.event.FollowChangedEvent;
+import com.learnloop.backend.event.LikeToggledEvent;
+import com.learnloop.backend.event.PostDeletedEvent;
+import com.learnloop.backend.model.Notification;
+import com.learnloop.backend.model.NotificationActor;
+import com.learnloop.backend.model.NotificationMember;
+import com.learnloop.backend.model.NotificationReadState;
+import com.learnloop.backend.repository.NotificationRepository;
+import com.learnloop.backend.util.FeedCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.MongoTransactionException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * The notification inbox, written as likes, comments and follows happen
+ * instead of being rebuilt from every post on each read. Each notification
+ * has a key that is unique per recipient, so writes are idempotent upserts
+ * and undoing the action (unlike, unfollow, deleting the comment) removes it.
+ *
+ * Likes and comments are coalesced per post and time window into one
+ * notification with a running actor count and the few most recent actors
+ * ("A, B and 48 others liked your post"), so a viral post costs one inbox
+ * entry and a bounded number of user lookups. Each like or comment is also
+ * kept as a NotificationMember, which makes counting it idempotent and lets
+ * it be taken back out. A NotificationActor per entry and actor counts their
+ * members; the write that takes it from 0 to 1 or back is the one that
+ * changes actorCount. The member, the actor and the entry are written in one
+ * transaction, so a replayed event finds either the member and everything it
+ * counted, or none of it. New activity moves the entry up and marks it unread.
+ *
+ * New and withdrawn notifications are pushed to /topic/notifications/{userId}
+ * together with the recipient's unread count, so clients do not need to poll.
+ * Notification writes and pushes never fail the action that caused them; they
+ * are made from domain events, on the outbox poller's thread.
+ */
+@Service
+public class NotificationService implements DomainEventConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
+    private static final int SAMPLE_ACTORS = 3;
+    private static final int NAMED_ACTORS = 2;
+    private static final int TRANSACTION_ATTEMPTS = 3;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationReadService notificationReadService;
+
+    @Autowired
+    private UserSummaryResolver userSummaryResolver;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${notifications.coalesce-window-ms:86400000}")
+    private long coalesceWindowMillis;
+
+    @Override
+    public String getConsumerName() {
+        return "notifications";
+    }
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            if (event instanceof LikeToggledEvent like) {
+                if (like.isLiked()) {
+                    onLike(like.getPostId(), like.getPostOwnerId(), like.getUserId());
+                } else {
+                    onUnlike(like.getPostId(), like.getPostOwnerId(), like.getUserId());
+                }
+            } else if (event instanceof CommentAddedEvent added) {
+                onComment(added.getComment().getPostId(), added.getPostOwnerId(), added.getComment().getId(),
+                        added.getComment().getUserId(), added.getComment().getCreatedAt());
+            } else if (event instanceof CommentDeletedEvent deleted) {
+                onCommentDeleted(deleted.getComment().getPostId(), deleted.getPostOwnerId(), deleted.getComment().getId());
+            } else if (event instanceof FollowChangedEvent follow) {
+                if (follow.isFollowing()) {
+                    onFollow(follow.getFollowerId(), follow.getFolloweeId());
+                } else {
+                    onUnfollow(follow.getFollowerId(), follow.getFolloweeId());
+                }
+            } else if (event instanceof PostDeletedEvent deleted) {
+                onPostDeleted(deleted.getPost().getId(), deleted.getPost().getUserId());
+            }
+        }
+    }
+
+    public void onLike(String postId, String postOwnerId, String likerId) {
+        coalesce(postOwnerId, likeKey(postId, likerId), Notification.LIKE, likerId, postId, LocalDateTime.now());
+    }
+
+    public void onUnlike(String postId, String postOwnerId, String likerId) {
+        uncount(postOwnerId, likeKey(postId, likerId));
+    }
+
+    public void onComment(String postId, String postOwnerId, String commentId, String commenterId, LocalDateTime createdAt) {
+        coalesce(postOwnerId, commentKey(postId, commentId), Notification.COMMENT, commenterId, postId, createdAt);
+    }
+
+    public void onCommentDeleted(String postId, String postOwnerId, String commentId) {
+        uncount(postOwnerId, commentKey(postId, commentId));
+    }
+
+    public void onFollow(String followerId, String followeeId) {
+        record(followeeId, followKey(followerId), followerId, LocalDateTime.now());
+    }
+
+    public void onUnfollow(String followerId, String followeeId) {
+        withdraw(followeeId, followKey(followerId));
+    }
+
+    public void onPostDeleted(String postId, String postOwnerId) {
+        try {
+            mongoTemplate.remove(new Query(where("postId").is(postId)), NotificationMember.class);
+            mongoTemplate.remove(new Query(where("postId").is(postId)), NotificationActor.class);
+            if (mongoTemplate.remove(new Query(where("postId").is(postId)), Notification.class).getDeletedCount() > 0) {
+                notificationReadService.recountUnread(postOwnerId);
+                push(postOwnerId, null, null);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not remove notifications of post {}: {}", postId, e.getMessage());
+        }
+    }
+
+    public long unreadCount(String userId) {
+        return notificationReadService.unreadCount(userId);
+    }
+
+    // After a mark-read, so the user's other sessions update their badge
+    public void pushUnreadCount(String userId) {
+        push(userId, null, null);
+    }
+
+    public List<Notification> findPage(String userId, FeedCursor cursor, int limit) {
+        return notificationRepository.findPageByUserId(userId, cursor, limit);
+    }
+
+    // Read state and the names shown are looked up once for the whole page, at most NAMED_ACTORS per entry
+    public List<NotificationDTO> toDTOs(String userId, List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return new ArrayList<>();
+        }
+        NotificationReadState readState = notificationReadService.get(userId);
+        Set<String> named = new HashSet<>();
+        notifications.forEach(notification -> named.addAll(namedActors(notification)));
+        Map<String, UserSummaryDTO> actors = userSummaryResolver.resolve(named);
+
+        List<NotificationDTO> page = new ArrayList<>(notifications.size());
+        for (Notification notification : notifications) {
+            page.add(toDTO(notification, actors, readState.isRead(notification)));
+        }
+        return page;
+    }
+
+    private static NotificationDTO toDTO(Notification notification, Map<String, UserSummaryDTO> actors, boolean read) {
+        List<String> names = new ArrayList<>();
+        for (String actorId : namedActors(notification)) {
+            UserSummaryDTO actor = actors.get(actorId);
+            names.add(actor != null && actor.getName() != null ? actor.getName() : "Someone");
+        }
+        int count = Math.max(1, notification.getActorCount());
+        return new NotificationDTO(notification.getKey(), notification.getType(),
+                who(names, count) + " " + verb(notification.getType()), notification.getActorId(), count,
+                sampleActors(notification), notification.getPostId(), read, notification.getCreatedAt());
+    }
+
+    // "A", "A and B", "A, B and 1 other", "A, B and 48 others"
+    private static String who(List<String> names, int count) {
+        if (names.size() == 1 || count == 1) {
+            return names.get(0);
+        }
+        if (count == 2) {
+            return names.get(0) + " and " + names.get(1);
+        }
+        int others = count - names.size();
+        return String.join(", ", names) + " and " + others + (others == 1 ? " other" : " others");
+    }
+
+    private static List<String> sampleActors(Notification notification) {
+        List<String> samples = notification.getSampleActorIds();
+        return samples != null && !samples.isEmpty() ? samples : List.of(notification.getActorId());
+    }
+
+    private static List<String> namedActors(Notification notification) {
+        List<String> samples = sampleActors(notification);
+        return samples.subList(0, Math.min(NAMED_ACTORS, samples.size()));
+    }
+
+    public static String likeKey(String postId, String likerId) {
+        return "like:" + postId + ":" + likerId;
+    }
+
+    public static String commentKey(String postId, String commentId) {
+        return "comment:" + postId + ":" + commentId;
+    }
+
+    public static String followKey(String followerId) {
+        return "follow:" + followerId;
+    }
+
+    private void record(String userId, String key, String actorId, LocalDateTime createdAt) {
+        if (userId == null || userId.equals(actorId)) {
+            return;
+        }
+        Update update = new Update()
+                .setOnInsert("type", Notification.FOLLOW)
+                .setOnInsert("actorId", actorId)
+                .setOnInsert("createdAt", createdAt);
+        try {
+            if (mongoTemplate.upsert(new Query(where("userId").is(userId).and("key").is(key)), update, Notification.class)
+                    .getUpsertedId() == null) {
+                return;
+            }
+        } catch (DuplicateKeyException e) {
+            // A concurrent upsert of the same notification won and pushes it
+            return;
+        } catch (Exception e) {
+            logger.warn("Could not record notification {} for {}: {}", key, userId, e.getMessage());
+            return;
+        }
+        notificationReadService.adjustUnreadCount(userId, 1);
+        Notification notification = new Notification();
+        notification.setUserId(userId);
+        notification.setKey(key);
+        notification.setType(Notification.FOLLOW);
+        notification.setActorId(actorId);
+        notification.setCreatedAt(createdAt);
+        push(userId, toDTO(notification, userSummaryResolver.resolve(List.of(actorId)), false), null);
+    }
+
+    private void coalesce(String userId, String memberKey, String type, String actorId, String postId,
+                          LocalDateTime createdAt) {
+        if (userId == null || userId.equals(actorId)) {
+            return;
+        }
+        Counted counted;
+        try {
+            counted = inTransaction(() -> addMember(userId, memberKey, type, actorId, postId, createdAt));
+        } catch (Exception e) {
+            logger.warn("Could not record notification {} for {}: {}", memberKey, userId, e.getMessage());
+            return;
+        }
+        if (counted == null) {
+            return;
+        }
+        // A new entry, or one already read, adds to the unread count; new activity on an unread one does not
+        if (counted.before == null) {
+            notificationReadService.adjustUnreadCount(userId, 1);
+        } else if (notificationReadService.get(userId).isRead(counted.before)) {
+            notificationReadService.markUnread(userId, counted.after.getKey());
+            notificationReadService.adjustUnreadCount(userId, 1);
+        }
+        push(userId, toDTO(counted.after, userSummaryResolver.resolve(namedActors(counted.after)), false), null);
+    }
+
+    // Counts a notification stored before likes and comments were coalesced, then removes it. Nothing is pushed.
+    public void regroup(Notification legacy) {
+        if (legacy.getUserId() != null && !legacy.getUserId().equals(legacy.getActorId())) {
+            inTransaction(() -> addMember(legacy.getUserId(), legacy.getKey(), legacy.getType(), legacy.getActorId(),
+                    legacy.getPostId(), legacy.getCreatedAt() != null ? legacy.getCreatedAt() : LocalDateTime.now()));
+        }
+        mongoTemplate.remove(new Query(where("_id").is(legacy.getId())), Notification.class);
+    }
+
+    // The entry it was counted in, before and after, or null if it already had been. Runs in a transaction.
+    private Counted addMember(String userId, String memberKey, String type, String actorId, String postId,
+                              LocalDateTime createdAt) {
+        String groupKey = groupKey(type, postId, createdAt);
+        // An existing member was committed together with its counts, so a repeated event is never counted twice
+        Update member = new Update()
+                .setOnInsert("groupKey", groupKey)
+                .setOnInsert("actorId", actorId)
+                .setOnInsert("postId", postId)
+                .setOnInsert("createdAt", createdAt)
+                .setOnInsert("counted", true);
+        if (mongoTemplate.upsert(new Query(where("userId").is(userId).and("key").is(memberKey)), member,
+                NotificationMember.class).getUpsertedId() == null) {
+            return null;
+        }
+        Query query = new Query(where("userId").is(userId).and("key").is(groupKey));
+        if (!countActor(userId, groupKey, actorId, postId)) {
+            // The actor is counted once per entry however often they comment
+            Notification before = mongoTemplate.findAndModify(query,
+                    new Update().set("actorId", actorId).max("createdAt", createdAt), Notification.class);
+            if (before != null) {
+                Notification after = copy(before);
+                after.setActorId(actorId);
+                after.setCreatedAt(later(before.getCreatedAt(), createdAt));
+                return new Counted(before, after);
+            }
+        }
+        Update update = new Update()
+                .setOnInsert("type", type)
+                .setOnInsert("postId", postId)
+                .set("actorId", actorId)
+                .max("createdAt", createdAt)
+                .inc("actorCount", 1);
+        update.push("sampleActorIds").atPosition(Update.Position.FIRST).slice(SAMPLE_ACTORS).each(actorId);
+        Notification before = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().upsert(true), Notification.class);
+        Notification after = before != null ? copy(before) : new Notification();
+        if (before == null) {
+            after.setUserId(userId);
+            after.setKey(groupKey);
+            after.setType(type);
+            after.setPostId(postId);
+        }
+        List<String> samples = new ArrayList<>();
+        samples.add(actorId);
+        if (before != null && before.getSampleActorIds() != null) {
+            samples.addAll(before.getSampleActorIds());
+        }
+        after.setSampleActorIds(samples.subList(0, Math.min(SAMPLE_ACTORS, samples.size())));
+        after.setActorId(actorId);
+        after.setActorCount(after.getActorCount() + 1);
+        after.setCreatedAt(before != null ? later(before.getCreatedAt(), createdAt) : createdAt);
+        return new Counted(before, after);
+    }
+
+    // Adds a member to the actor's count in the entry; true when it is their first, so the entry counts them
+    private boolean countActor(String userId, String groupKey, String actorId, String postId) {
+        Query actor = actorQuery(userId, groupKey, actorId);
+        Update update = new Update().inc("members", 1).setOnInsert("postId", postId);
+        NotificationActor before = mongoTemplate.findAndModify(actor, update,
+                FindAndModifyOptions.options().upsert(true), NotificationActor.class);
+        if (before != null && before.getMembers() > 0) {
+            return false;
+        }
+        return !hasUncountedMember(userId, groupKey, actorId);
+    }
+
+    // Takes the member out of the actor's count; true when it was their last, so the entry drops them
+    private boolean releaseActor(NotificationMember member) {
+        String userId = member.getUserId();
+        if (!Boolean.TRUE.equals(member.getCounted())) {
+            return !hasOtherMember(userId, member.getGroupKey(), member.getActorId(), member.getKey());
+        }
+        Query actor = actorQuery(userId, member.getGroupKey(), member.getActorId());
+        NotificationActor after = mongoTemplate.findAndModify(actor, new Update().inc("members", -1),
+                FindAndModifyOptions.options().returnNew(true), NotificationActor.class);
+        if (after == null || after.getMembers() > 0) {
+            return false;
+        }
+        // A member added since finds 0 or no document, and counts the actor again itself
+        mongoTemplate.remove(actorQuery(userId, member.getGroupKey(), member.getActorId())
+                .addCriteria(where("members").lte(0)), NotificationActor.class);
+        return !hasUncountedMember(userId, member.getGroupKey(), member.getActorId());
+    }
+
+    private static Query actorQuery(String userId, String groupKey, String actorId) {
+        return new Query(where("userId").is(userId).and("groupKey").is(groupKey).and("actorId").is(actorId));
+    }
+
+    // Members stored before actor documents existed were counted in the entry without one
+    private boolean hasUncountedMember(String userId, String groupKey, String actorId) {
+        return mongoTemplate.exists(actorQuery(userId, groupKey, actorId).addCriteria(where("counted").exists(false)),
+                NotificationMember.class);
+    }
+
+    private boolean hasOtherMember(String userId, String groupKey, String actorId, String memberKey) {
+        return mongoTemplate.exists(actorQuery(userId, groupKey, actorId).addCriteria(where("key").ne(memberKey)),
+                NotificationMember.class);
+    }
+
+    private void uncount(String userId, String memberKey) {
+        try {
+            Notification group = inTransaction(() -> removeMember(userId, memberKey));
+            if (group == null) {
+                return;
+            }
+            if (group.getActorCount() <= 0) {
+                if (mongoTemplate.remove(new Query(where("userId").is(userId).and("key").is(group.getKey())
+                        .and("actorCount").lte(0)), Notification.class).getDeletedCount() > 0
+                        && !notificationReadService.get(userId).isRead(group)) {
+                    notificationReadService.adjustUnreadCount(userId, -1);
+                }
+                push(userId, null, group.getKey());
+                return;
+            }
+            List<String> samples = group.getSampleActorIds();
+            if (samples == null || samples.size() < Math.min(SAMPLE_ACTORS, group.getActorCount())) {
+                group = refillSamples(userId, group);
+            }
+            if (group != null) {
+                push(userId, toDTO(group, userSummaryResolver.resolve(namedActors(group)),
+                        notificationReadService.get(userId).isRead(group)), null);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not withdraw notification {} for {}: {}", memberKey, userId, e.getMessage());
+        }
+    }
+
+    // The entry after taking the member out, or null if that did not change its actors. Runs in a transaction.
+    private Notification removeMember(String userId, String memberKey) {
+        NotificationMember member = mongoTemplate.findAndRemove(
+                new Query(where("userId").is(userId).and("key").is(memberKey)), NotificationMember.class);
+        if (member == null || !releaseActor(member)) {
+            return null;
+        }
+        return mongoTemplate.findAndModify(new Query(where("userId").is(userId).and("key").is(member.getGroupKey())),
+                new Update().inc("actorCount", -1).pull("sampleActorIds", member.getActorId()),
+                FindAndModifyOptions.options().returnNew(true), Notification.class);
+    }
+
+    // Concurrent events for one entry conflict on its documents; the transaction that lost runs again and sees
+    // what the other wrote, including a member or actor it had been about to create
+    private <T> T inTransaction(Supplier<T> writes) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> writes.get());
+            } catch (DuplicateKeyException | MongoTransactionException e) {
+                if (attempt == TRANSACTION_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // The removed actor was one of the samples; the next most recent members take its place
+    private Notification refillSamples(String userId, Notification group) {
+        Query members = new Query(where("userId").is(userId).and("groupKey").is(group.getKey()))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt"))
+                .limit(SAMPLE_ACTORS);
+        members.fields().include("actorId");
+        List<String> samples = mongoTemplate.find(members, NotificationMember.class).stream()
+                .map(NotificationMember::getActorId)
+                .distinct()
+                .collect(Collectors.toList());
+        if (samples.isEmpty()) {
+            return group;
+        }
+        return mongoTemplate.findAndModify(
+                new Query(where("userId").is(userId).and("key").is(group.getKey())),
+                new Update().set("sampleActorIds", samples).set("actorId", samples.get(0)),
+                FindAndModifyOptions.options().returnNew(true), Notification.class);
+    }
+
+    // Tumbling windows, so every event in one maps to the same key
+    private String groupKey(String type, String postId, LocalDateTime createdAt) {
+        long window = createdAt.toInstant(ZoneOffset.UTC).toEpochMilli() / coalesceWindowMillis;
+        return type + ":" + postId + ":" + window;
+    }
+
+    private void withdraw(String userId, String key) {
+        try {
+            Notification removed = mongoTemplate.findAndRemove(
+                    new Query(where("userId").is(userId).and("key").is(key)), Notification.class);
+            if (removed != null) {
+                if (!notificationReadService.get(userId).isRead(removed)) {
+                    notificationReadService.adjustUnreadCount(userId, -1);
+                }
+                push(userId, null, key);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not withdraw notification {} for {}: {}", key, userId, e.getMessage());
+        }
+    }
+
+    private void push(String userId, NotificationDTO notification, String withdrawnId) {
+        try {
+            messagingTemplate.convertAndSend("/topic/notifications/" + userId,
+                    new NotificationPushDTO(notification, withdrawnId, unreadCount(userId)));
+        } catch (Exception e) {
+            logger.warn("Could not push notifications to {}: {}", userId, e.getMessage());
+        }
+    }
+
+    private static Notification copy(Notification notification) {
+        Notification copy = new Notification();
+        copy.setId(notification.getId());
+        copy.setUserId(notification.getUserId());
+        copy.setKey(notification.getKey());
+        copy.setType(notification.getType());
+        copy.setActorId(notification.getActorId());
+        copy.setActorCount(notification.getActorCount());
+        copy.setSampleActorIds(notification.getSampleActorIds());
+        copy.setPostId(notification.getPostId());
+        copy.setCreatedAt(notification.getCreatedAt());
+        return copy;
+    }
+
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        return a == null || b.isAfter(a) ? b : a;
+    }
+
+    private static String verb(String type) {
+        switch (type) {
+            case Notification.LIKE:
+                return "liked your post";
+            case Notification.COMMENT:
+                return "commented on your post";
+            case Notification.FOLLOW:
+                return "followed you";
+            default:
+                return "interacted with you";
+        }
+    }
+
+    private static final class Counted {
+        final Notification before;  // null if the entry was created
+        final Notification after;
+
+        Counted(Notification before, Notification after) {
+            this.before = before;
+            this.after = after;
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package com.learnloop.backend.service;
+
+import com.learnloop.backend.event.CommentAddedEvent;
+import com.learnloop.backend.event.CommentDeletedEvent;
+import com.learnloop.backend.event.DomainEvent;
+import com.learnloop.backend.event.DomainEventConsumer;
+import com.learnloop.backend.event.FollowChangedEvent;
+import com.learnloop.backend.event.LikeToggledEvent;
+import com.learnloop.backend.event.PostCreatedEvent;
+import com.learnloop.backend.event.PostDeletedEvent;
+import com.learnloop.backend.model.OutboxEntry;
+import com.learnloop.backend.model.Post;
+import com.learnloop.backend.util.StatsSource;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Transactional outbox for domain events. A post, comment, like or follow is
+ * written in the same transaction as its OutboxEntry, so a crash or a slow
+ * consumer right after the write cannot lose the side effects (the author's
+ * post list, timelines, notifications, affinity, media cleanup).
+ *
+ * A poller thread claims due entries in batches and hands them to every
+ * DomainEventConsumer. When a consumer fails on a batch, the batch's entries
+ * are handed to the failed consumers one at a time, and each is removed or
+ * retried with backoff on its own, so one bad entry does not hold back the
+ * rest. Delivery is therefore at least once, and the consumers are
+ * idempotent. An entry that has failed outbox.max-attempts times is moved to
+ * "outbox_dead_letters" with its last error.
+ *
+ * The poller is woken after each commit, and otherwise looks every
+ * outbox.poll-interval-ms. That also picks up entries whose claim ran out
+ * because the process handling them died. Any Throwable from a consumer or
+ * from reading an entry counts as a failed attempt of that entry, and a poll
+ * that fails as a whole is retried with backoff, so nothing stops the poller.
+ */
+@Service
+public class OutboxService implements StatsSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxService.class);
+    private static final long CLAIM_MILLIS = 60_000;
+    private static final long FIRST_RETRY_MILLIS = 1_000;
+    private static final long MAX_RETRY_MILLIS = 300_000;
+    private static final String DEAD_LETTERS = "outbox_dead_letters";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private List<DomainEventConsumer> consumers;
+
+    private final int batchSize;
+    private final long pollIntervalMillis;
+    private final int maxAttempts;
+    private final Thread poller;
+    private final Object signal = new Object();
+    private boolean woken;  // guarded by signal
+
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private volatile long lastDeliveryDelayMillis;
+    private volatile long maxDeliveryDelayMillis;
+
+    public OutboxService(@Value("${outbox.batch-size:100}") int batchSize,
+                         @Value("${outbox.poll-interval-ms:1000}") long pollIntervalMillis,
+                         @Value("${outbox.max-attempts:10}") int maxAttempts) {
+        this.batchSize = batchSize;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.maxAttempts = maxAttempts;
+        this.poller = new Thread(this::run, "outbox-poller");
+        this.poller.setDaemon(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        poller.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poller.interrupt();
+    }
+
+    // Runs the write and records the event for what it wrote in one transaction; a write that changed
+    // nothing maps to a null event and records none
+    public <T> T writeWithEvent(Supplier<T> write, Function<T, DomainEvent> event) {
+        AtomicBoolean recorded = new AtomicBoolean();
+        T written = transactionTemplate.execute(status -> {
+            T result = write.get();
+            DomainEvent happened = event.apply(result);
+            if (happened != null) {
+                mongoTemplate.insert(toEntry(happened));
+                recorded.set(true);
+            }
+            return result;
+        });
+        if (recorded.get()) {
+            appended.incrementAndGet();
+            wakeUp();
+        }
+        return written;
+    }
+
+    private void wakeUp() {
+        synchronized (signal) {
+            woken = true;
+            signal.notifyAll();
+        }
+    }
+
+    private void run() {
+        int failedPolls = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            int claimed = 0;
+            long idleMillis = pollIntervalMillis;
+            try {
+                claimed = drain();
+                failedPolls = 0;
+            } catch (Throwable e) {
+                failedPolls++;
+                idleMillis = Math.min(MAX_RETRY_MILLIS, pollIntervalMillis << Math.min(failedPolls, 20));
+                logger.error("Outbox poll failed, polling again in {} ms", idleMillis, e);
+            }
+            if (claimed < batchSize) {
+                synchronized (signal) {
+                    try {
+                        if (!woken) {
+                            signal.wait(idleMillis);
+                        }
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    woken = false;
+                }
+            }
+        }
+    }
+
+    // Claims one batch of due entries and delivers it; returns how many were claimed
+    private int drain() {
+        LocalDateTime now = LocalDateTime.now();
+        Query due = new Query(where("availableAt").lte(now))
+                .with(Sort.by(Sort.Direction.ASC, "availableAt"))
+                .limit(batchSize);
+        due.fields().include("_id");
+        List<String> ids = mongoTemplate.find(due, OutboxEntry.class).stream()
+                .map(OutboxEntry::getId)
+                .collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        // Only entries still due are claimed, so two pollers never take the same one
+        String claim = UUID.randomUUID().toString();
+        mongoTemplate.updateMulti(new Query(where("_id").in(ids).and("availableAt").lte(now)),
+                new Update().set("claim", claim).set("availableAt", now.plus(CLAIM_MILLIS, ChronoUnit.MILLIS)),
+                OutboxEntry.class);
+        Query claimed = new Query(where("claim").is(claim))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt").and(Sort.by(Sort.Direction.ASC, "_id")));
+        List<OutboxEntry> entries = mongoTemplate.find(claimed, OutboxEntry.class);
+        if (entries.isEmpty()) {
+            return ids.size();
+        }
+
+        Map<OutboxEntry, String> unreadable = new HashMap<>();
+        Map<OutboxEntry, DomainEvent> events = toEvents(entries, unreadable);
+        Map<DomainEventConsumer, String> failures = deliver(new ArrayList<>(events.values()), consumers);
+        if (failures.isEmpty() && unreadable.isEmpty()) {
+            mongoTemplate.remove(new Query(where("claim").is(claim)), OutboxEntry.class);
+            delivered.addAndGet(events.size());
+            recordDelay(entries.get(0));
+            return entries.size();
+        }
+
+        if (!failures.isEmpty()) {
+            failedBatches.incrementAndGet();
+            logger.warn("Outbox batch of {} failed, delivering its entries one by one: {}", entries.size(), describe(failures));
+        }
+        // The consumers that succeeded have handled every entry; the others get them one at a time
+        for (OutboxEntry entry : entries) {
+            if (unreadable.containsKey(entry)) {
+                retryLater(entry, claim, unreadable.get(entry));
+                continue;
+            }
+            DomainEvent event = events.get(entry);
+            Map<DomainEventConsumer, String> entryFailures =
+                    event != null ? deliver(List.of(event), failures.keySet()) : Map.of();
+            if (entryFailures.isEmpty()) {
+                mongoTemplate.remove(new Query(where("_id").is(entry.getId()).and("claim").is(claim)), OutboxEntry.class);
+                if (event != null) {
+                    delivered.incrementAndGet();
+                    recordDelay(entry);
+                }
+            } else {
+                retryLater(entry, claim, describe(entryFailures));
+            }
+        }
+        return entries.size();
+    }
+
+    // The consumers that failed, with their errors
+    private static Map<DomainEventConsumer, String> deliver(List<DomainEvent> events,
+                                                            Collection<DomainEventConsumer> to) {
+        Map<DomainEventConsumer, String> failures = new LinkedHashMap<>();
+        if (events.isEmpty()) {
+            return failures;
+        }
+        for (DomainEventConsumer consumer : to) {
+            try {
+                consumer.onEvents(events);
+            } catch (Throwable e) {
+                failures.put(consumer, String.valueOf(e));
+            }
+        }
+        return failures;
+    }
+
+    private static String describe(Map<DomainEventConsumer, String> failures) {
+        return failures.entrySet().stream()
+                .map(failure -> failure.getKey().getConsumerName() + ": " + failure.getValue())
+                .collect(Collectors.joining("; "));
+    }
+
+    private void recordDelay(OutboxEntry entry) {
+        long delay = ChronoUnit.MILLIS.between(entry.getCreatedAt(), LocalDateTime.now());
+        lastDeliveryDelayMillis = delay;
+        maxDeliveryDelayMillis = Math.max(maxDeliveryDelayMillis, delay);
+    }
+
+    // Each entry's event in claim order, carrying the entry's id; a creation whose post is already gone
+    // was overtaken by its deletion, which has cleaned up after it, and gets none. Entries that cannot
+    // be turned into an event go to unreadable with the error.
+    private Map<OutboxEntry, DomainEvent> toEvents(List<OutboxEntry> entries, Map<OutboxEntry, String> unreadable) {
+        Set<String> createdIds = entries.stream()
+                .filter(entry -> OutboxEntry.POST_CREATED.equals(entry.getType()) && entry.getPost() != null)
+                .map(entry -> entry.getPost().getId())
+                .collect(Collectors.toSet());
+        Set<String> existing = new HashSet<>();
+        if (!createdIds.isEmpty()) {
+            Query query = new Query(where("_id").in(createdIds));
+            query.fields().include("_id");
+            mongoTemplate.find(query, Post.class).forEach(post -> existing.add(post.getId()));
+        }
+        Map<OutboxEntry, DomainEvent> events = new LinkedHashMap<>();
+        for (OutboxEntry entry : entries) {
+            try {
+                if (OutboxEntry.POST_CREATED.equals(entry.getType()) && !existing.contains(entry.getPost().getId())) {
+                    skipped.incrementAndGet();
+                    continue;
+                }
+                DomainEvent event = toEvent(entry);
+                if (event != null) {
+                    event.setId(entry.getId());
+                    events.put(entry, event);
+                }
+            } catch (Throwable e) {
+                unreadable.put(entry, "unreadable: " + e);
+            }
+        }
+        return events;
+    }
+
+    private static DomainEvent toEvent(OutboxEntry entry) {
+        return switch (entry.getType()) {
+            case OutboxEntry.POST_CREATED -> new PostCreatedEvent(entry.getPost());
+            case OutboxEntry.POST_DELETED -> new PostDeletedEvent(entry.getPost());
+            case OutboxEntry.LIKE_TOGGLED ->
+                    new LikeToggledEvent(entry.getPostId(), entry.getPostOwnerId(), entry.getUserId(), entry.isActive());
+            case OutboxEntry.COMMENT_ADDED -> new CommentAddedEvent(entry.getComment(), entry.getPostOwnerId());
+            case OutboxEntry.COMMENT_DELETED -> new CommentDeletedEvent(entry.getComment(), entry.getPostOwnerId());
+            case OutboxEntry.FOLLOW_CHANGED ->
+                    new FollowChangedEvent(entry.getUserId(), entry.getFolloweeId(), entry.isActive());
+            default -> null;
+        };
+    }
+
+    private void retryLater(OutboxEntry entry, String claim, String error) {
+        if (entry.getAttempts() + 1 >= maxAttempts) {
+            deadLetter(entry, claim, error);
+            return;
+        }
+        long backoff = Math.min(MAX_RETRY_MILLIS, FIRST_RETRY_MILLIS << Math.min(entry.getAttempts(), 20));
+        mongoTemplate.updateFirst(new Query(where("_id").is(entry.getId()).and("claim").is(claim)),
+                new Update().unset("claim")
+                        .set("availableAt", LocalDateTime.now().plus(backoff, ChronoUnit.MILLIS))
+                        .inc("attempts", 1)
+                        .set("lastError", error),
+                OutboxEntry.class);
+        retried.incrementAndGet();
+    }
+
+    // Copied before it is removed, so a crash in between leaves it in the outbox rather than losing it
+    private void deadLetter(OutboxEntry entry, String claim, String error) {
+        entry.setClaim(null);
+        entry.setAttempts(entry.getAttempts() + 1);
+        entry.setLastError(error);
+        try {
+            mongoTemplate.insert(entry, DEAD_LETTERS);
+        } catch (DuplicateKeyException e) {
+            // Copied on an earlier try whose removal did not happen
+        }
+        mongoTemplate.remove(new Query(where("_id").is(entry.getId()).and("claim").is(claim)), OutboxEntry.class);
+        deadLettered.incrementAndGet();
+        logger.error("Outbox entry {} ({}) moved to {} after {} attempts: {}",
+                entry.getId(), entry.getType(), DEAD_LETTERS, entry.getAttempts(), error);
+    }
+
+    private static OutboxEntry toEntry(DomainEvent event) {
+        OutboxEntry entry = new OutboxEntry();
+        if (event instanceof PostCreatedEvent created) {
+            entry.setType(OutboxEntry.POST_CREATED);
+            entry.setPost(created.getPost());
+        } else if (event instanceof PostDeletedEvent deleted) {
+            entry.setType(OutboxEntry.POST_DELETED);
+            entry.setPost(deleted.getPost());
+        } else if (event instanceof LikeToggledEvent like) {
+            entry.setType(OutboxEntry.LIKE_TOGGLED);
+            entry.setPostId(like.getPostId());
+            entry.setPostOwnerId(like.getPostOwnerId());
+            entry.setUserId(like.getUserId());
+            entry.setActive(like.isLiked());
+        } else if (event instanceof CommentAddedEvent added) {
+            entry.setType(OutboxEntry.COMMENT_ADDED);
+            entry.setComment(added.getComment());
+            entry.setPostOwnerId(added.getPostOwnerId());
+        } else if (event instanceof CommentDeletedEvent removed) {
+            entry.setType(OutboxEntry.COMMENT_DELETED);
+            entry.setComment(removed.getComment());
+            entry.setPostOwnerId(removed.getPostOwnerId());
+        } else if (event instanceof FollowChangedEvent follow) {
+            entry.setType(OutboxEntry.FOLLOW_CHANGED);
+            entry.setUserId(follow.getFollowerId());
+            entry.setFolloweeId(follow.getFolloweeId());
+            entry.setActive(follow.isFollowing());
+        } else {
+            throw new IllegalArgumentException("No outbox entry for " + event.getClass().getSimpleName());
+        }
+        entry.setCreatedAt(LocalDateTime.now());
+        entry.setAvailableAt(entry.getCreatedAt());
+        return entry;
+    }
+
+    @Override
+    public String getStatsName() {
+        return "outbox";
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("appended", appended.get());
+        stats.put("delivered", delivered.get());
+        stats.put("skipped", skipped.get());
+        stats.put("failedBatches", failedBatches.get());
+        stats.put("retried", retried.get());
+        stats.put("deadLettered", deadLettered.get());
+        stats.put("lastDeliveryDelayMillis", lastDeliveryDelayMillis);
+        stats.put("maxDeliveryDelayMillis", maxDeliveryDelayMillis);
+        return stats;
+    }
+}
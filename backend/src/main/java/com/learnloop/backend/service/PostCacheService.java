@@ -0,0 +1,73 @@
+package com.learnloop.backend.service;
+
+import com.learnloop.backend.model.PostView;
+import com.learnloop.backend.repository.PostRepository;
+import com.learnloop.backend.util.BoundedCache;
+import com.learnloop.backend.util.StatsSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-through cache of post views by ID: the same projection the feed reads,
+ * with the counters and comment preview but not the edges of who liked it.
+ * Every code path that changes a post (edit, comment, delete, like counter
+ * flush) invalidates its entry, and entries expire after posts.cache.ttl-ms
+ * so that changes made by other instances show up.
+ *
+ * Callers get copies, so they may add the viewer's state to them.
+ */
+@Service
+public class PostCacheService implements StatsSource {
+
+    private final BoundedCache<String, PostView> cache;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    public PostCacheService(@Value("${posts.cache.max-size:10000}") int maxSize,
+                            @Value("${posts.cache.ttl-ms:300000}") long ttlMillis) {
+        this.cache = new BoundedCache<>(maxSize, ttlMillis);
+    }
+
+    // Null when the post does not exist
+    public PostView get(String postId) {
+        PostView view = cache.get(postId, id -> {
+            List<PostView> found = postRepository.findViewsByIdIn(List.of(id));
+            return found.isEmpty() ? null : found.get(0);
+        });
+        return view != null ? view.copy() : null;
+    }
+
+    // Posts that do not exist are left out
+    public Map<String, PostView> getAll(Collection<String> postIds) {
+        Map<String, PostView> views = cache.getAll(postIds, missing -> {
+            Map<String, PostView> loaded = new HashMap<>();
+            for (PostView view : postRepository.findViewsByIdIn(missing)) {
+                loaded.put(view.getId(), view);
+            }
+            return loaded;
+        });
+        views.replaceAll((id, view) -> view.copy());
+        return views;
+    }
+
+    public void invalidate(String postId) {
+        cache.invalidate(postId);
+    }
+
+    @Override
+    public String getStatsName() {
+        return "postCache";
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        return cache.stats();
+    }
+}
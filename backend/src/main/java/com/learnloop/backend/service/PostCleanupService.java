@@ -0,0 +1,45 @@
+package com.learnloop.backend.service;
+
+import com.learnloop.backend.event.DomainEvent;
+import com.learnloop.backend.event.DomainEventConsumer;
+import com.learnloop.backend.event.PostDeletedEvent;
+import com.learnloop.backend.model.Comment;
+import com.learnloop.backend.model.PostLike;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Removes what hangs off a deleted post: its comments and likes. Runs from
+ * the outbox together with the deletion's other side effects, so it may see
+ * the same deletion more than once; deleting what is already gone is harmless.
+ */
+@Service
+public class PostCleanupService implements DomainEventConsumer {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public String getConsumerName() {
+        return "postCleanup";
+    }
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        List<String> deleted = events.stream()
+                .filter(event -> event instanceof PostDeletedEvent)
+                .map(event -> ((PostDeletedEvent) event).getPost().getId())
+                .collect(Collectors.toList());
+        if (!deleted.isEmpty()) {
+            mongoTemplate.remove(new Query(where("postId").in(deleted)), Comment.class);
+            mongoTemplate.remove(new Query(where("postId").in(deleted)), PostLike.class);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.learnloop.backend.service;
+
+import com.learnloop.backend.dto.LikeStateDTO;
+import com.learnloop.backend.event.LikeToggledEvent;
+import com.learnloop.backend.model.PostLike;
+import com.learnloop.backend.model.PostView;
+import com.mongodb.client.result.UpdateResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.MongoTransactionException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Likes are edges in "post_likes", unique per post and user, so a like is an
+ * upsert and an unlike a delete of a small document and the post itself is
+ * never written. likeCount is written behind by LikeCounterService, which is
+ * the only writer of the post. The edge and its LikeToggledEvent are written
+ * in one outbox transaction.
+ */
+@Service
+public class PostLikeService {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private LikeCounterService likeCounterService;
+
+    @Autowired
+    private PostCacheService postCacheService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    // Returns null when the post does not exist
+    public LikeStateDTO toggleLike(String postId, String userId) {
+        PostView post = postCacheService.get(postId);
+        if (post == null) {
+            return null;
+        }
+        Query edge = new Query(where("postId").is(postId).and("userId").is(userId));
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            try {
+                Boolean liked = outboxService.writeWithEvent(() -> toggleEdge(edge),
+                        toggled -> toggled != null ? new LikeToggledEvent(postId, post.getUserId(), userId, toggled) : null);
+                if (liked != null) {
+                    likeCounterService.recordDelta(postId, liked ? 1 : -1);
+                    return new LikeStateDTO(postId, liked,
+                            likeCounterService.currentCount(postId, post.getLikeCount(), post.getLikeFlushes()));
+                }
+            } catch (DuplicateKeyException | MongoTransactionException e) {
+                // Liked or unliked concurrently, look again
+            }
+            // Another request liked in between; toggling again unlikes it
+        }
+        throw new IllegalStateException("Like state kept changing, try again.");
+    }
+
+    // False when a like was removed, true when one was inserted, null when it already existed
+    private Boolean toggleEdge(Query edge) {
+        if (mongoTemplate.remove(edge, PostLike.class).getDeletedCount() > 0) {
+            return false;
+        }
+        UpdateResult result = mongoTemplate.upsert(edge,
+                new Update().setOnInsert("createdAt", LocalDateTime.now()), PostLike.class);
+        return result.getUpsertedId() != null ? Boolean.TRUE : null;
+    }
+
+    // Adds the pending like deltas to each view and marks the ones the viewer liked, with one $in query
+    public List<PostView> applyViewerState(List<PostView> posts, String viewerId) {
+        for (PostView post : posts) {
+            post.setLikeCount((int) likeCounterService.currentCount(post.getId(), post.getLikeCount(), post.getLikeFlushes()));
+        }
+        Set<String> liked = likedAmong(viewerId, posts.stream().map(PostView::getId).collect(Collectors.toList()));
+        for (PostView post : posts) {
+            post.setLikedByMe(liked.contains(post.getId()));
+        }
+        return posts;
+    }
+
+    public Set<String> likedAmong(String userId, List<String> postIds) {
+        Set<String> liked = new HashSet<>();
+        if (userId == null || postIds.isEmpty()) {
+            return liked;
+        }
+        Query query = new Query(where("postId").in(postIds).and("userId").is(userId));
+        query.fields().include("postId");
+        for (PostLike like : mongoTemplate.find(query, PostLike.class)) {
+            liked.add(like.getPostId());
+        }
+        return liked;
+    }
+}
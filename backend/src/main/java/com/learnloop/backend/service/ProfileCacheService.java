@@ -0,0 +1,82 @@
+package com.learnloop.backend.service;
+
+import com.learnloop.backend.dto.PublicProfileDTO;
+import com.learnloop.backend.repository.UserRepository;
+import com.learnloop.backend.util.BoundedCache;
+import com.learnloop.backend.util.StatsSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Public profiles cached by user ID, with a second cache from username to ID
+ * so both lookups share one entry. Usernames never change, so only the ID
+ * entry needs invalidating when a profile is edited.
+ *
+ * Follower and following counts change with every follow and are not
+ * cached; they are filled in per request from the follow graph.
+ */
+@Service
+public class ProfileCacheService implements StatsSource {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FollowGraphService followGraphService;
+
+    private final BoundedCache<String, PublicProfileDTO> byId;
+    private final BoundedCache<String, String> idByUsername;
+
+    public ProfileCacheService(@Value("${profiles.cache.max-size:10000}") int maxSize,
+                               @Value("${profiles.cache.ttl-ms:600000}") long ttlMillis) {
+        this.byId = new BoundedCache<>(maxSize, ttlMillis);
+        this.idByUsername = new BoundedCache<>(maxSize, ttlMillis);
+    }
+
+    // Null when there is no such user
+    public PublicProfileDTO get(String userId) {
+        PublicProfileDTO cached = byId.get(userId, userRepository::findPublicProfileById);
+        return cached != null ? withCounts(cached) : null;
+    }
+
+    public PublicProfileDTO getByUsername(String username) {
+        String userId = idByUsername.get(username, name -> {
+            PublicProfileDTO profile = userRepository.findPublicProfileByUsername(name);
+            if (profile == null) {
+                return null;
+            }
+            byId.get(profile.getId(), id -> profile);
+            return profile.getId();
+        });
+        return userId != null ? get(userId) : null;
+    }
+
+    public void invalidate(String userId) {
+        byId.invalidate(userId);
+    }
+
+    // A copy, so the cached entry is never handed out
+    private PublicProfileDTO withCounts(PublicProfileDTO cached) {
+        PublicProfileDTO profile = new PublicProfileDTO(cached);
+        profile.setFollowerCount(followGraphService.followerCount(profile.getId()));
+        profile.setFollowingCount(followGraphService.followingCount(profile.getId()));
+        return profile;
+    }
+
+    @Override
+    public String getStatsName() {
+        return "profileCache";
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("byId", byId.stats());
+        stats.put("byUsername", idByUsername.stats());
+        return stats;
+    }
+}
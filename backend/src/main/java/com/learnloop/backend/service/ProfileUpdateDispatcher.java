@@ -0,0 +1,164 @@
+package com.learnloop.backend.service;
+
+import com.learnloop.backend.dto.ProfileUpdateMessage;
+import com.learnloop.backend.util.StatsSource;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends profile updates to followers over WebSocket off the request thread.
+ * Only the latest update per user is kept: a second change before the first
+ * went out replaces it, and one arriving mid fan-out stops the older fan-out
+ * at the next batch boundary. The queue of users with a pending update is
+ * bounded; when it is full the update is dropped, since followers pick up
+ * the new picture on their next profile load anyway.
+ */
+@Service
+public class ProfileUpdateDispatcher implements StatsSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProfileUpdateDispatcher.class);
+    private static final int USERS_PER_DRAIN = 100;
+    private static final int SEND_BATCH_SIZE = 500;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private FollowGraphService followGraphService;
+
+    private final BlockingQueue<String> queue;
+    private final Map<String, Pending> latest = new ConcurrentHashMap<>();
+    private final Thread worker;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong superseded = new AtomicLong();
+    private final AtomicLong dispatched = new AtomicLong();
+    private final AtomicLong messagesSent = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile long lastQueueWaitMillis;
+    private volatile long lastDispatchMillis;
+    private volatile long maxDispatchMillis;
+
+    public ProfileUpdateDispatcher(@Value("${profile-updates.queue-capacity:10000}") int capacity) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.worker = new Thread(this::run, "profile-update-dispatcher");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.interrupt();
+    }
+
+    public void publish(String userId, String profilePicturePath) {
+        published.incrementAndGet();
+        Pending update = new Pending(new ProfileUpdateMessage(userId, profilePicturePath), System.currentTimeMillis());
+        if (latest.put(userId, update) != null) {
+            // Already queued; the worker will pick up this newer message instead
+            coalesced.incrementAndGet();
+            return;
+        }
+        if (!queue.offer(userId)) {
+            // Updates that coalesced into this one in the meantime relied on this slot too,
+            // so whatever is in `latest` now goes; a conditional remove would strand it
+            latest.remove(userId);
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void run() {
+        List<String> userIds = new ArrayList<>(USERS_PER_DRAIN);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                userIds.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(userIds, USERS_PER_DRAIN - 1);
+            for (String userId : userIds) {
+                Pending update = latest.remove(userId);
+                if (update != null) {
+                    dispatch(userId, update);
+                }
+            }
+            userIds.clear();
+        }
+    }
+
+    private void dispatch(String userId, Pending update) {
+        long startedAt = System.currentTimeMillis();
+        lastQueueWaitMillis = startedAt - update.publishedAt;
+        try {
+            List<String> followers = followGraphService.followers(userId);
+            for (int from = 0; from < followers.size(); from += SEND_BATCH_SIZE) {
+                if (from > 0 && latest.containsKey(userId)) {
+                    // A newer update is queued and will go to everyone
+                    superseded.incrementAndGet();
+                    return;
+                }
+                for (String followerId : followers.subList(from, Math.min(from + SEND_BATCH_SIZE, followers.size()))) {
+                    messagingTemplate.convertAndSend("/topic/profile-update/" + followerId, update.message);
+                }
+                messagesSent.addAndGet(Math.min(SEND_BATCH_SIZE, followers.size() - from));
+            }
+            dispatched.incrementAndGet();
+        } catch (Exception e) {
+            failures.incrementAndGet();
+            logger.warn("Profile update fan-out for {} failed: {}", userId, e.getMessage());
+        } finally {
+            long took = System.currentTimeMillis() - update.publishedAt;
+            lastDispatchMillis = took;
+            maxDispatchMillis = Math.max(maxDispatchMillis, took);
+        }
+    }
+
+    @Override
+    public String getStatsName() {
+        return "profileUpdates";
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("queueDepth", queue.size());
+        stats.put("queueCapacity", queue.size() + queue.remainingCapacity());
+        stats.put("published", published.get());
+        stats.put("coalesced", coalesced.get());
+        stats.put("dropped", dropped.get());
+        stats.put("superseded", superseded.get());
+        stats.put("dispatched", dispatched.get());
+        stats.put("messagesSent", messagesSent.get());
+        stats.put("failures", failures.get());
+        stats.put("lastQueueWaitMillis", lastQueueWaitMillis);
+        stats.put("lastDispatchLatencyMillis", lastDispatchMillis);
+        stats.put("maxDispatchLatencyMillis", maxDispatchMillis);
+        return stats;
+    }
+
+    private static final class Pending {
+        final ProfileUpdateMessage message;
+        final long publishedAt;
+
+        Pending(ProfileUpdateMessage message, long publishedAt) {
+            this.message = message;
+            this.publishedAt = publishedAt;
+        }
+    }
+}
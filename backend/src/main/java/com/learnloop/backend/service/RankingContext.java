@@ -0,0 +1,41 @@
+package com.learnloop.backend.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-request inputs for a FeedRanker: who is looking, when, and how much they
+ * have interacted with each candidate author.
+ */
+public class RankingContext {
+    private final String viewerId;
+    private final long nowEpochSecond;
+    private final ZoneOffset zoneOffset;
+    private final Map<String, Double> authorAffinity = new HashMap<>();
+
+    public RankingContext(String viewerId, LocalDateTime now, Map<String, Long> authorInteractions) {
+        this.viewerId = viewerId;
+        this.zoneOffset = ZoneId.systemDefault().getRules().getOffset(now);
+        this.nowEpochSecond = now.toEpochSecond(zoneOffset);
+        // Log-damped once per author here rather than once per candidate
+        authorInteractions.forEach((authorId, count) -> authorAffinity.put(authorId, Math.log1p(Math.max(0, count))));
+    }
+
+    public String getViewerId() { return viewerId; }
+
+    public double ageHours(LocalDateTime createdAt) {
+        if (createdAt == null) {
+            return Double.MAX_VALUE;
+        }
+        return Math.max(0, nowEpochSecond - createdAt.toEpochSecond(zoneOffset)) / 3600.0;
+    }
+
+    // log(1 + interactions with the author), 0 for authors never interacted with
+    public double affinity(String authorId) {
+        Double affinity = authorAffinity.get(authorId);
+        return affinity != null ? affinity : 0;
+    }
+}
@@ -0,0 +1,218 @@
+package com.learnloop.backend.service;
+
+import com.learnloop.backend.dto.SuggestionDTO;
+import com.learnloop.backend.dto.UserSummaryDTO;
+import com.learnloop.backend.event.DomainEvent;
+import com.learnloop.backend.event.DomainEventConsumer;
+import com.learnloop.backend.event.FollowChangedEvent;
+import com.learnloop.backend.model.PlanSharing;
+import com.learnloop.backend.util.BoundedCache;
+import com.learnloop.backend.util.StatsSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * "Who to follow", from the follow graph instead of a scan of all users.
+ * Candidates are friends of friends, scored by how many of the user's
+ * followees follow them, plus a bonus for following the user already and
+ * for plan topics in common. Users with no such candidates get the most
+ * followed accounts.
+ *
+ * The best suggestions are cached per user. A follow change invalidates both
+ * users and the followers of the one who followed, whose friends of friends
+ * just changed.
+ */
+@Service
+public class SuggestionService implements StatsSource, DomainEventConsumer {
+
+    private static final int CACHED_SUGGESTIONS = 50;
+    private static final int TOPIC_SCORED_POOL = 200;
+    private static final double FOLLOWS_YOU_BONUS = 1.0;
+    private static final double SHARED_TOPIC_WEIGHT = 0.5;
+    private static final int MAX_SHARED_TOPICS_SCORED = 4;
+    private static final int MAX_FOLLOWERS_INVALIDATED = 10_000;
+
+    @Autowired
+    private FollowGraphService followGraphService;
+
+    @Autowired
+    private UserSummaryResolver userSummaryResolver;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final BoundedCache<String, List<Suggestion>> cache;
+
+    public SuggestionService(@Value("${suggestions.cache.max-size:10000}") int maxSize,
+                             @Value("${suggestions.cache.ttl-ms:600000}") long ttlMillis) {
+        this.cache = new BoundedCache<>(maxSize, ttlMillis);
+    }
+
+    // Best first; accounts followed since the list was cached are skipped
+    public List<SuggestionDTO> suggest(String userId, int limit) {
+        List<Suggestion> picked = new ArrayList<>(limit);
+        for (Suggestion suggestion : cache.get(userId, this::compute)) {
+            if (picked.size() == limit) {
+                break;
+            }
+            if (!followGraphService.isFollowing(userId, suggestion.userId)) {
+                picked.add(suggestion);
+            }
+        }
+        Map<String, UserSummaryDTO> users = userSummaryResolver.resolve(
+                picked.stream().map(suggestion -> suggestion.userId).collect(Collectors.toList()));
+        List<SuggestionDTO> result = new ArrayList<>(picked.size());
+        for (Suggestion suggestion : picked) {
+            UserSummaryDTO user = users.get(suggestion.userId);
+            if (user != null) {
+                result.add(new SuggestionDTO(user, suggestion.mutualCount, suggestion.followsYou, suggestion.sharedTopics));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String getConsumerName() {
+        return "suggestions";
+    }
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            if (event instanceof FollowChangedEvent follow) {
+                onFollowChanged(follow.getFollowerId(), follow.getFolloweeId());
+            }
+        }
+    }
+
+    public void onFollowChanged(String followerId, String followeeId) {
+        cache.invalidate(followerId);
+        cache.invalidate(followeeId);
+        List<String> followers = followGraphService.followers(followerId);
+        if (followers.size() <= MAX_FOLLOWERS_INVALIDATED) {
+            followers.forEach(cache::invalidate);
+        }
+    }
+
+    private List<Suggestion> compute(String userId) {
+        Map<String, Suggestion> candidates = new HashMap<>();
+        followGraphService.friendsOfFriends(userId).forEach((candidateId, mutual) -> {
+            Suggestion suggestion = new Suggestion(candidateId);
+            suggestion.mutualCount = mutual;
+            candidates.put(candidateId, suggestion);
+        });
+        Set<String> followees = new HashSet<>(followGraphService.followees(userId));
+        for (String followerId : followGraphService.followers(userId)) {
+            if (!followerId.equals(userId) && !followees.contains(followerId)) {
+                candidates.computeIfAbsent(followerId, Suggestion::new).followsYou = true;
+            }
+        }
+        candidates.values().forEach(Suggestion::rescore);
+
+        // Topics are only looked up for the strongest graph candidates
+        List<Suggestion> pool = topK(candidates.values(), TOPIC_SCORED_POOL);
+        if (!pool.isEmpty()) {
+            List<String> userIds = pool.stream().map(suggestion -> suggestion.userId).collect(Collectors.toList());
+            userIds.add(userId);
+            Map<String, Set<String>> topics = topicsByUser(userIds);
+            Set<String> ownTopics = topics.getOrDefault(userId, Set.of());
+            for (Suggestion suggestion : pool) {
+                Set<String> theirs = topics.getOrDefault(suggestion.userId, Set.of());
+                suggestion.sharedTopics = (int) theirs.stream().filter(ownTopics::contains).count();
+                suggestion.rescore();
+            }
+        }
+        List<Suggestion> ranked = topK(pool, CACHED_SUGGESTIONS);
+
+        if (ranked.size() < CACHED_SUGGESTIONS) {
+            Set<String> exclude = new HashSet<>(followees);
+            exclude.add(userId);
+            ranked.forEach(suggestion -> exclude.add(suggestion.userId));
+            for (String popular : followGraphService.mostFollowed(CACHED_SUGGESTIONS - ranked.size(), exclude)) {
+                ranked.add(new Suggestion(popular));
+            }
+        }
+        return ranked;
+    }
+
+    private Map<String, Set<String>> topicsByUser(Collection<String> userIds) {
+        Query query = new Query(where("userId").in(userIds));
+        query.fields().include("userId", "topics");
+        Map<String, Set<String>> topics = new HashMap<>();
+        for (PlanSharing plan : mongoTemplate.find(query, PlanSharing.class)) {
+            if (plan.getTopics() == null) {
+                continue;
+            }
+            Set<String> userTopics = topics.computeIfAbsent(plan.getUserId(), id -> new HashSet<>());
+            for (String topic : plan.getTopics()) {
+                if (topic != null && !topic.isBlank()) {
+                    userTopics.add(topic.trim().toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return topics;
+    }
+
+    // The k best by score, best first, with a min-heap of size k
+    private static List<Suggestion> topK(Collection<Suggestion> candidates, int k) {
+        Comparator<Suggestion> byScore = Comparator.comparingDouble((Suggestion s) -> s.score)
+                .thenComparing(s -> s.userId, Comparator.reverseOrder());
+        PriorityQueue<Suggestion> heap = new PriorityQueue<>(k + 1, byScore);
+        for (Suggestion candidate : candidates) {
+            if (heap.size() < k) {
+                heap.add(candidate);
+            } else if (byScore.compare(candidate, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(candidate);
+            }
+        }
+        List<Suggestion> best = new ArrayList<>(heap);
+        best.sort(byScore.reversed());
+        return best;
+    }
+
+    @Override
+    public String getStatsName() {
+        return "suggestionCache";
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        return cache.stats();
+    }
+
+    private static final class Suggestion {
+        final String userId;
+        int mutualCount;
+        boolean followsYou;
+        int sharedTopics;
+        double score;
+
+        Suggestion(String userId) {
+            this.userId = userId;
+        }
+
+        void rescore() {
+            score = mutualCount
+                    + (followsYou ? FOLLOWS_YOU_BONUS : 0)
+                    + SHARED_TOPIC_WEIGHT * Math.min(sharedTopics, MAX_SHARED_TOPICS_SCORED);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.learnloop.backend.service;
+
+import com.learnloop.backend.event.DomainEvent;
+import com.learnloop.backend.event.DomainEventConsumer;
+import com.learnloop.backend.event.FollowChangedEvent;
+import com.learnloop.backend.event.PostCreatedEvent;
+import com.learnloop.backend.event.PostDeletedEvent;
+import com.learnloop.backend.model.Post;
+import com.learnloop.backend.model.Timeline;
+import com.learnloop.backend.model.User;
+import com.learnloop.backend.repository.PostRepository;
+import com.learnloop.backend.repository.TimelineRepository;
+import com.learnloop.backend.util.FeedCursor;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Fan-out-on-write timelines. New posts are pushed into the timeline of every
+ * follower when they are created, so reading a feed is a single document
+ * lookup. A user without a timeline gets one rebuilt from the posts
+ * collection on first read.
+ *
+ * Post creation and deletion come from the outbox, which retries them until
+ * they succeed, so they run on its thread and are idempotent. Follow changes
+ * are queued on a background worker.
+ *
+ * Authors with at least feed.fanout.celebrity-follower-threshold followers are
+ * not fanned out (one post would mean that many writes); their posts stay out
+ * of follower timelines and are merged in at read time by FeedService.
+ */
+@Service
+public class TimelineService implements DomainEventConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimelineService.class);
+    private static final int BULK_CHUNK_SIZE = 500;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private TimelineRepository timelineRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private FollowGraphService followGraphService;
+
+    @Value("${feed.timeline.max-size:500}")
+    private int maxSize;
+
+    @Value("${feed.fanout.celebrity-follower-threshold:10000}")
+    private int celebrityFollowerThreshold;
+
+    private final ExecutorService worker = new ThreadPoolExecutor(
+            2, 2, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(10_000),
+            runnable -> {
+                Thread thread = new Thread(runnable, "timeline-worker");
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy());
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdown();
+    }
+
+    @Override
+    public String getConsumerName() {
+        return "timelines";
+    }
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            if (event instanceof PostCreatedEvent created) {
+                onPostCreated(created.getPost(), followGraphService.followers(created.getPost().getUserId()));
+            } else if (event instanceof PostDeletedEvent deleted) {
+                onPostDeleted(deleted.getPost(), followGraphService.followers(deleted.getPost().getUserId()));
+            } else if (event instanceof FollowChangedEvent follow) {
+                if (follow.isFollowing()) {
+                    onFollow(follow.getFollowerId(), follow.getFolloweeId());
+                } else {
+                    onUnfollow(follow.getFollowerId(), follow.getFolloweeId());
+                }
+            }
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public boolean isCelebrity(int followerCount) {
+        return followerCount >= celebrityFollowerThreshold;
+    }
+
+    // The subset of the given users whose posts are pulled at read time instead of fanned out
+    public Set<String> findCelebrities(Collection<String> userIds) {
+        Set<String> celebrities = new HashSet<>();
+        if (userIds == null || userIds.isEmpty()) {
+            return celebrities;
+        }
+        if (followGraphService.isReady()) {
+            for (String userId : userIds) {
+                if (isCelebrity(followGraphService.followerCount(userId))) {
+                    celebrities.add(userId);
+                }
+            }
+            return celebrities;
+        }
+        Query query = new Query(where("_id").in(userIds)
+                .and("followerCount").gte(celebrityFollowerThreshold));
+        query.fields().include("_id");
+        for (User user : mongoTemplate.find(query, User.class)) {
+            celebrities.add(user.getId());
+        }
+        return celebrities;
+    }
+
+    public void onPostCreated(Post post, Collection<String> followerIds) {
+        boolean celebrity = followerIds != null && isCelebrity(followerIds.size());
+        List<String> recipients = recipients(post.getUserId(), celebrity ? null : followerIds);
+        Update push = pushUpdate(List.of(Timeline.Entry.of(post)));
+        for (int from = 0; from < recipients.size(); from += BULK_CHUNK_SIZE) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Timeline.class);
+            for (String userId : recipients.subList(from, Math.min(from + BULK_CHUNK_SIZE, recipients.size()))) {
+                // Skipped where an earlier delivery already added it
+                bulk.updateOne(new Query(where("_id").is(userId).and("entries.postId").ne(post.getId())), push);
+            }
+            bulk.execute();
+        }
+    }
+
+    public void onPostDeleted(Post post, Collection<String> followerIds) {
+        boolean celebrity = followerIds != null && isCelebrity(followerIds.size());
+        List<String> recipients = recipients(post.getUserId(), celebrity ? null : followerIds);
+        Update pull = new Update().pull("entries", new Document("postId", post.getId()));
+        for (int from = 0; from < recipients.size(); from += BULK_CHUNK_SIZE) {
+            List<String> chunk = recipients.subList(from, Math.min(from + BULK_CHUNK_SIZE, recipients.size()));
+            mongoTemplate.updateMulti(new Query(where("_id").in(chunk)), pull, Timeline.class);
+        }
+    }
+
+    // Backfills the followee's recent posts; timelines that do not exist yet are built on read
+    public void onFollow(String followerId, String followeeId) {
+        submit("follow " + followerId + " -> " + followeeId, () -> {
+            Query timeline = new Query(where("_id").is(followerId));
+            if (!mongoTemplate.exists(timeline, Timeline.class) || !findCelebrities(List.of(followeeId)).isEmpty()) {
+                return;
+            }
+            List<Timeline.Entry> entries = postRepository.findSummariesByUserIdIn(List.of(followeeId), maxSize)
+                    .stream().map(Timeline.Entry::of).collect(Collectors.toList());
+            mongoTemplate.updateFirst(timeline, pullAuthor(followeeId), Timeline.class);
+            if (!entries.isEmpty()) {
+                mongoTemplate.updateFirst(timeline, pushUpdate(entries), Timeline.class);
+            }
+        });
+    }
+
+    public void onUnfollow(String followerId, String followeeId) {
+        submit("unfollow " + followerId + " -> " + followeeId, () ->
+                mongoTemplate.updateFirst(new Query(where("_id").is(followerId)), pullAuthor(followeeId), Timeline.class));
+    }
+
+    // followingIds should leave out celebrities, whose posts are not kept in timelines
+    public Timeline getOrRebuild(String userId, Collection<String> followingIds) {
+        return timelineRepository.findById(userId).orElseGet(() -> rebuild(userId, followingIds));
+    }
+
+    public Timeline rebuild(String userId, Collection<String> followingIds) {
+        List<Post> posts = postRepository.findSummariesByUserIdIn(recipients(userId, followingIds), maxSize);
+        Timeline timeline = new Timeline();
+        timeline.setUserId(userId);
+        timeline.setEntries(posts.stream().map(Timeline.Entry::of).collect(Collectors.toList()));
+        return timelineRepository.save(timeline);
+    }
+
+    // Entries strictly older than the cursor, in timeline order
+    public static List<Timeline.Entry> entriesAfter(Timeline timeline, FeedCursor cursor, int limit) {
+        List<Timeline.Entry> page = new ArrayList<>(Math.min(limit, timeline.getEntries().size()));
+        for (Timeline.Entry entry : timeline.getEntries()) {
+            if (page.size() == limit) {
+                break;
+            }
+            if (cursor == null || isAfter(entry, cursor)) {
+                page.add(entry);
+            }
+        }
+        return page;
+    }
+
+    private static boolean isAfter(Timeline.Entry entry, FeedCursor cursor) {
+        int byDate = Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder())
+                .compare(entry.getCreatedAt(), cursor.getCreatedAt());
+        return byDate < 0 || (byDate == 0 && entry.getPostId().compareTo(cursor.getId()) < 0);
+    }
+
+    // Same (createdAt, id) order as the cursor, so equal timestamps neither repeat nor drop out of a page
+    private Update pushUpdate(List<Timeline.Entry> entries) {
+        return new Update().push("entries")
+                .sort(Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "postId")))
+                .slice(maxSize)
+                .each(entries.toArray());
+    }
+
+    private static Update pullAuthor(String authorId) {
+        return new Update().pull("entries", new Document("authorId", authorId));
+    }
+
+    private static List<String> recipients(String userId, Collection<String> otherIds) {
+        List<String> recipients = new ArrayList<>();
+        if (otherIds != null) {
+            recipients.addAll(otherIds);
+        }
+        if (!recipients.contains(userId)) {
+            recipients.add(userId);
+        }
+        return recipients;
+    }
+
+    private void submit(String description, Runnable task) {
+        worker.execute(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                logger.warn("Timeline update failed ({}): {}", description, e.getMessage());
+            }
+        });
+    }
+}
@@ -1,15 +1,20 @@
 package com.learnloop.backend.service;
 
+import com.learnloop.backend.event.DomainEvent;
+import com.learnloop.backend.event.DomainEventConsumer;
+import com.learnloop.backend.event.PostCreatedEvent;
+import com.learnloop.backend.event.PostDeletedEvent;
 import com.learnloop.backend.model.User;
 import com.learnloop.backend.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Optional;
 
 @Service
-public class UserService {
+public class UserService implements DomainEventConsumer {
 
     @Autowired
     private UserRepository userRepository;
@@ -17,6 +22,28 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ProfileCacheService profileCacheService;
+
+    @Override
+    public String getConsumerName() {
+        return "userPosts";
+    }
+
+    // Keeps the author's list of posts, and with it their cached post count, in step with the posts collection
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            if (event instanceof PostCreatedEvent created) {
+                userRepository.addPost(created.getPost().getUserId(), created.getPost().getId());
+                profileCacheService.invalidate(created.getPost().getUserId());
+            } else if (event instanceof PostDeletedEvent deleted) {
+                userRepository.removePost(deleted.getPost().getUserId(), deleted.getPost().getId());
+                profileCacheService.invalidate(deleted.getPost().getUserId());
+            }
+        }
+    }
+
     public User registerUser(User user) {
         if (userRepository.findByUsername(user.getUsername()).isPresent()) {
             throw new RuntimeException("Username is already taken. Please choose a different username.");
@@ -0,0 +1,52 @@
+package com.learnloop.backend.service;
+
+import com.learnloop.backend.dto.UserSummaryDTO;
+import com.learnloop.backend.model.Post;
+import com.learnloop.backend.model.PostView;
+import com.learnloop.backend.model.User;
+import com.learnloop.backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loads the authors and commenters of a page of posts with a single query,
+ * instead of one findById per post and per comment.
+ */
+@Service
+public class UserSummaryResolver {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    public Map<String, UserSummaryDTO> resolveForPosts(Collection<PostView> posts) {
+        Set<String> userIds = new HashSet<>();
+        for (PostView post : posts) {
+            userIds.add(post.getUserId());
+            if (post.getRecentComments() != null) {
+                for (Post.Comment comment : post.getRecentComments()) {
+                    userIds.add(comment.getUserId());
+                }
+            }
+        }
+        return resolve(userIds);
+    }
+
+    public Map<String, UserSummaryDTO> resolve(Collection<String> userIds) {
+        Map<String, UserSummaryDTO> summaries = new HashMap<>();
+        Set<String> ids = new HashSet<>(userIds);
+        ids.remove(null);
+        if (ids.isEmpty()) {
+            return summaries;
+        }
+        for (User user : userRepository.findSummariesByIdIn(ids)) {
+            summaries.put(user.getId(), new UserSummaryDTO(user.getId(), user.getName(), user.getUsername(), user.getProfilePicturePath()));
+        }
+        return summaries;
+    }
+}
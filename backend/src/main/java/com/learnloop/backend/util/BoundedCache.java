@@ -0,0 +1,277 @@
+package com.learnloop.backend.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Size-bounded in-process cache with per-entry TTL and W-TinyLFU style
+ * eviction: new entries land in a small LRU window, and an entry leaving the
+ * window only displaces the LRU entry of the main region if a count-min
+ * sketch says it has been requested more often. One-off reads therefore
+ * cannot flush out the hot set.
+ *
+ * A value whose key was invalidated while it was being loaded is returned
+ * but not stored, so a read racing a write cannot put the old value back.
+ * Invalidations are remembered per key only while loads are in flight, and
+ * invalidating one key does not stop loads of other keys from being cached.
+ */
+public class BoundedCache<K, V> {
+
+    private final int windowCapacity;
+    private final int mainCapacity;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Entry<V>> main = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+    private final int maxInvalidationStamps;
+    // Invalidation sequence numbers, for loads started before them
+    private final Map<K, Long> invalidatedAt = new HashMap<>();
+    private long sequence;
+    private long clearedAt;
+    private int loading;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong rejections = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    public BoundedCache(int maximumSize, long ttlMillis) {
+        if (maximumSize < 2) {
+            throw new IllegalArgumentException("maximumSize must be at least 2");
+        }
+        this.windowCapacity = Math.max(1, maximumSize / 100);
+        this.mainCapacity = maximumSize - windowCapacity;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.sketch = new FrequencySketch(maximumSize);
+        this.maxInvalidationStamps = maximumSize;
+    }
+
+    public synchronized V getIfPresent(K key) {
+        sketch.increment(key.hashCode());
+        Entry<V> entry = window.get(key);
+        if (entry == null) {
+            entry = main.get(key);
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (entry.expiresAt - System.nanoTime() <= 0) {
+            window.remove(key);
+            main.remove(key);
+            expirations.incrementAndGet();
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.value;
+    }
+
+    // The loader runs outside the lock; null results are not cached
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value = getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+        long stamp = startLoad();
+        try {
+            value = loader.apply(key);
+            if (value != null) {
+                putIfUnchanged(key, value, stamp);
+            }
+        } finally {
+            endLoad();
+        }
+        return value;
+    }
+
+    // Hits plus whatever the loader returns for the misses, in one call
+    public Map<K, V> getAll(Collection<? extends K> keys,
+                            Function<Collection<K>, Map<K, V>> loader) {
+        Map<K, V> result = new HashMap<>();
+        List<K> missing = new ArrayList<>();
+        for (K key : keys) {
+            V value = getIfPresent(key);
+            if (value != null) {
+                result.put(key, value);
+            } else {
+                missing.add(key);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long stamp = startLoad();
+            try {
+                Map<K, V> loaded = loader.apply(missing);
+                for (Map.Entry<K, V> e : loaded.entrySet()) {
+                    if (e.getValue() != null) {
+                        putIfUnchanged(e.getKey(), e.getValue(), stamp);
+                        result.put(e.getKey(), e.getValue());
+                    }
+                }
+            } finally {
+                endLoad();
+            }
+        }
+        return result;
+    }
+
+    public synchronized void invalidate(K key) {
+        sequence++;
+        if (loading > 0) {
+            invalidatedAt.put(key, sequence);
+            if (invalidatedAt.size() > maxInvalidationStamps) {
+                // Too many to track: treat the in-flight loads as if everything was invalidated
+                invalidatedAt.clear();
+                clearedAt = sequence;
+            }
+        }
+        window.remove(key);
+        main.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        sequence++;
+        clearedAt = sequence;
+        invalidatedAt.clear();
+        window.clear();
+        main.clear();
+    }
+
+    public synchronized int size() {
+        return window.size() + main.size();
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits.get();
+        long requests = hitCount + misses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size());
+        stats.put("hits", hitCount);
+        stats.put("misses", misses.get());
+        stats.put("hitRate", requests == 0 ? 0.0 : (double) hitCount / requests);
+        stats.put("evictions", evictions.get());
+        stats.put("admissionRejections", rejections.get());
+        stats.put("expirations", expirations.get());
+        return stats;
+    }
+
+    private synchronized long startLoad() {
+        loading++;
+        return sequence;
+    }
+
+    // With no load in flight no stamp can be compared against any more
+    private synchronized void endLoad() {
+        if (--loading == 0) {
+            invalidatedAt.clear();
+        }
+    }
+
+    private synchronized void putIfUnchanged(K key, V value, long stamp) {
+        if (clearedAt > stamp || invalidatedAt.getOrDefault(key, 0L) > stamp) {
+            return;
+        }
+        Entry<V> entry = new Entry<>(value, System.nanoTime() + ttlNanos);
+        if (main.containsKey(key)) {
+            main.put(key, entry);
+            return;
+        }
+        window.put(key, entry);
+        if (window.size() > windowCapacity) {
+            promoteFromWindow();
+        }
+    }
+
+    // The window's LRU entry competes with the main region's LRU entry
+    private void promoteFromWindow() {
+        Iterator<Map.Entry<K, Entry<V>>> candidates = window.entrySet().iterator();
+        Map.Entry<K, Entry<V>> candidate = candidates.next();
+        candidates.remove();
+        if (main.size() < mainCapacity) {
+            main.put(candidate.getKey(), candidate.getValue());
+            return;
+        }
+        Iterator<Map.Entry<K, Entry<V>>> victims = main.entrySet().iterator();
+        Map.Entry<K, Entry<V>> victim = victims.next();
+        if (sketch.frequency(candidate.getKey().hashCode()) > sketch.frequency(victim.getKey().hashCode())) {
+            victims.remove();
+            main.put(candidate.getKey(), candidate.getValue());
+        } else {
+            rejections.incrementAndGet();
+        }
+        evictions.incrementAndGet();
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Count-min sketch of 4 rows of counters saturating at 15. All are halved
+     * every 10 * capacity increments so that old popularity fades.
+     */
+    private static final class FrequencySketch {
+        private static final long[] SEEDS = {
+                0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+        private final byte[][] rows;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int capacity) {
+            int width = Integer.highestOneBit(Math.max(16, capacity) - 1) << 1;
+            rows = new byte[SEEDS.length][width];
+            mask = width - 1;
+            sampleSize = 10 * capacity;
+        }
+
+        void increment(int hash) {
+            for (int i = 0; i < rows.length; i++) {
+                int index = index(hash, i);
+                if (rows[i][index] < 15) {
+                    rows[i][index]++;
+                }
+            }
+            if (++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        int frequency(int hash) {
+            int min = 15;
+            for (int i = 0; i < rows.length; i++) {
+                min = Math.min(min, rows[i][index(hash, i)]);
+            }
+            return min;
+        }
+
+        private int index(int hash, int row) {
+            long h = (hash + SEEDS[row]) * SEEDS[row];
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+
+        private void reset() {
+            for (byte[] row : rows) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] >>= 1;
+                }
+            }
+            additions /= 2;
+        }
+    }
+}
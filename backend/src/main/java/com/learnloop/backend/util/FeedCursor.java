@@ -0,0 +1,48 @@
+package com.learnloop.backend.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for post pages sorted by (createdAt desc, id desc).
+ * Clients get it back in the X-Next-Cursor header and pass it unchanged.
+ * Documents written without a createdAt sort last, and a cursor taken from
+ * one of them carries an empty date.
+ */
+public class FeedCursor {
+
+    private final LocalDateTime createdAt;
+    private final String id;
+
+    public FeedCursor(LocalDateTime createdAt, String id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public String getId() { return id; }
+
+    public String encode() {
+        String raw = (createdAt != null ? createdAt.toString() : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static FeedCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor.");
+            }
+            String date = raw.substring(0, separator);
+            return new FeedCursor(date.isEmpty() ? null : LocalDateTime.parse(date), raw.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.learnloop.backend.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Merges lists that are each already sorted into one sorted list, keeping
+ * only the first `limit` items and dropping items whose key was already seen.
+ * Runs in O(limit * log k) for k sources.
+ */
+public final class KWayMerge {
+
+    private KWayMerge() {
+    }
+
+    public static <T> List<T> merge(List<List<T>> sources, Comparator<? super T> order,
+                                    Function<? super T, ?> key, int limit) {
+        PriorityQueue<Head<T>> heads = new PriorityQueue<>(Math.max(1, sources.size()),
+                (a, b) -> order.compare(a.current(), b.current()));
+        for (List<T> source : sources) {
+            if (!source.isEmpty()) {
+                heads.add(new Head<>(source));
+            }
+        }
+
+        List<T> merged = new ArrayList<>(limit);
+        Set<Object> seen = new HashSet<>();
+        while (merged.size() < limit && !heads.isEmpty()) {
+            Head<T> head = heads.poll();
+            T item = head.current();
+            if (seen.add(key.apply(item))) {
+                merged.add(item);
+            }
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
+
+    private static final class Head<T> {
+        private final List<T> source;
+        private int index;
+
+        Head(List<T> source) {
+            this.source = source;
+        }
+
+        T current() {
+            return source.get(index);
+        }
+
+        boolean advance() {
+            return ++index < source.size();
+        }
+    }
+}
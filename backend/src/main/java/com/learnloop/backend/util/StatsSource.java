@@ -0,0 +1,12 @@
+package com.learnloop.backend.util;
+
+import java.util.Map;
+
+/**
+ * Implemented by components that expose runtime counters; every bean of this
+ * type is listed by GET /api/metrics under its stats name.
+ */
+public interface StatsSource {
+    String getStatsName();
+    Map<String, Object> getStats();
+}
@@ -0,0 +1,63 @@
+package com.learnloop.backend.service;
+
+import com.learnloop.backend.model.Post;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Times topK with the default EngagementFeedRanker over a 5,000 post
+ * candidate set, the size the ranking request budgets well under a
+ * millisecond for.
+ *
+ * Run with: mvn test -Dtest=FeedRankingBenchmarkTest -Dbenchmarks=true
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class FeedRankingBenchmarkTest {
+
+    private static final int CANDIDATES = 5_000;
+    private static final int AUTHORS = 200;
+    private static final int PAGE_SIZE = 20;
+    private static final int ROUNDS = 5_000;
+
+    @Test
+    void rankFiveThousandCandidates() {
+        FeedRankingService service = new FeedRankingService();
+        ReflectionTestUtils.setField(service, "feedRanker", new EngagementFeedRanker());
+
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        List<Post> candidates = new ArrayList<>(CANDIDATES);
+        for (int i = 0; i < CANDIDATES; i++) {
+            Post post = FeedRankingServiceTest.post("p" + i, random.nextInt(500));
+            post.setUserId("author" + random.nextInt(AUTHORS));
+            post.setCreatedAt(now.minusMinutes(random.nextInt(60 * 24 * 14)));
+            post.setCommentCount(random.nextInt(100));
+            candidates.add(post);
+        }
+        Map<String, Long> interactions = new HashMap<>();
+        for (int i = 0; i < AUTHORS; i += 3) {
+            interactions.put("author" + i, (long) random.nextInt(50));
+        }
+        RankingContext context = new RankingContext("viewer", now, interactions);
+
+        for (int i = 0; i < ROUNDS; i++) {
+            assertEquals(PAGE_SIZE, service.topK(candidates, context, PAGE_SIZE).size());
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            service.topK(candidates, context, PAGE_SIZE);
+        }
+        long nanosPerCall = (System.nanoTime() - start) / ROUNDS;
+        System.out.printf("topK of %,d candidates: %,d ns per request%n", CANDIDATES, nanosPerCall);
+    }
+}
@@ -0,0 +1,128 @@
+package com.learnloop.backend.service;
+
+import com.learnloop.backend.event.DomainEvent;
+import com.learnloop.backend.event.LikeToggledEvent;
+import com.learnloop.backend.model.AuthorAffinity;
+import com.learnloop.backend.model.Post;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FeedRankingServiceTest {
+
+    private final FeedRankingService service = new FeedRankingService();
+    private final RankingContext context = new RankingContext("viewer", LocalDateTime.now(), Map.of());
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final BulkOperations bulk = mock(BulkOperations.class);
+
+    @BeforeEach
+    void rankByLikes() {
+        FeedRanker byLikes = (candidate, context) -> candidate.getLikeCount();
+        ReflectionTestUtils.setField(service, "feedRanker", byLikes);
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AuthorAffinity.class)).thenReturn(bulk);
+    }
+
+    @Test
+    void aRedeliveredLikeIsNotAddedToTheAffinityAgain() {
+        when(mongoTemplate.find(any(Query.class), eq(AuthorAffinity.class))).thenReturn(List.of(affinity("e1")));
+
+        service.onEvents(List.of(like("e1", true), like("e2", true), like("e3", false)));
+
+        ArgumentCaptor<Query> counter = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulk).upsert(counter.capture(), update.capture());
+        Document notAdded = counter.getValue().getQueryObject().get("recentEvents", Document.class);
+        assertEquals(List.of("e2", "e3"), List.copyOf((Collection<?>) notAdded.get("$nin")));
+        Number delta = (Number) update.getValue().getUpdateObject().get("$inc", Document.class).get("score");
+        assertEquals(0, delta.intValue());
+        assertTrue(update.getValue().getUpdateObject().containsKey("$push"));
+        verify(bulk).execute();
+    }
+
+    @Test
+    void eventsTheAffinityAlreadyHasWriteNothing() {
+        when(mongoTemplate.find(any(Query.class), eq(AuthorAffinity.class))).thenReturn(List.of(affinity("e1", "e2")));
+
+        service.onEvents(List.of(like("e1", true), like("e2", false)));
+
+        verify(bulk, never()).upsert(any(Query.class), any(Update.class));
+        verify(bulk, never()).execute();
+    }
+
+    @Test
+    void returnsTheBestKBestFirst() {
+        List<Post> candidates = new ArrayList<>();
+        for (int likes = 0; likes < 100; likes++) {
+            candidates.add(post("p" + likes, likes));
+        }
+        Collections.shuffle(candidates);
+
+        List<Post> top = service.topK(candidates, context, 5);
+
+        assertEquals(List.of("p99", "p98", "p97", "p96", "p95"), ids(top));
+    }
+
+    @Test
+    void returnsEveryCandidateWhenKIsLarger() {
+        List<Post> top = service.topK(List.of(post("a", 1), post("b", 3), post("c", 2)), context, 10);
+
+        assertEquals(List.of("b", "c", "a"), ids(top));
+    }
+
+    @Test
+    void returnsNothingForNoCandidatesOrNonPositiveK() {
+        assertTrue(service.topK(List.of(), context, 5).isEmpty());
+        assertTrue(service.topK(List.of(post("a", 1)), context, 0).isEmpty());
+    }
+
+    static Post post(String id, int likeCount) {
+        Post post = new Post();
+        post.setId(id);
+        post.setUserId("author-" + id);
+        post.setCreatedAt(LocalDateTime.now());
+        post.setLikeCount(likeCount);
+        return post;
+    }
+
+    private static DomainEvent like(String eventId, boolean liked) {
+        DomainEvent like = new LikeToggledEvent("p1", "ann", "bob", liked);
+        like.setId(eventId);
+        return like;
+    }
+
+    private static AuthorAffinity affinity(String... recentEvents) {
+        AuthorAffinity affinity = new AuthorAffinity();
+        affinity.setUserId("bob");
+        affinity.setAuthorId("ann");
+        affinity.setRecentEvents(List.of(recentEvents));
+        return affinity;
+    }
+
+    private static List<String> ids(List<Post> posts) {
+        return posts.stream().map(Post::getId).collect(Collectors.toList());
+    }
+}
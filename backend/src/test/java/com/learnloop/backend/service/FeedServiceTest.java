@@ -0,0 +1,139 @@
+package com.learnloop.backend.service;
+
+import com.learnloop.backend.model.PostView;
+import com.learnloop.backend.model.Timeline;
+import com.learnloop.backend.model.User;
+import com.learnloop.backend.repository.PostRepository;
+import com.learnloop.backend.util.FeedCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FeedServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    private final TimelineService timelineService = mock(TimelineService.class);
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final PostCacheService postCacheService = mock(PostCacheService.class);
+    private final FollowGraphService followGraphService = mock(FollowGraphService.class);
+    private final FeedService service = new FeedService();
+    private final Map<String, PostView> stored = new HashMap<>();
+    private final User user = new User();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "timelineService", timelineService);
+        ReflectionTestUtils.setField(service, "postRepository", postRepository);
+        ReflectionTestUtils.setField(service, "postCacheService", postCacheService);
+        ReflectionTestUtils.setField(service, "followGraphService", followGraphService);
+        user.setId("u1");
+        when(followGraphService.followees("u1")).thenReturn(List.of("ann"));
+        when(timelineService.findCelebrities(anyList())).thenReturn(Set.of());
+        when(timelineService.getMaxSize()).thenReturn(500);
+        when(postCacheService.getAll(anyCollection())).thenAnswer(invocation -> {
+            Map<String, PostView> found = new HashMap<>();
+            for (String id : invocation.<Collection<String>>getArgument(0)) {
+                if (stored.containsKey(id)) {
+                    found.put(id, stored.get(id));
+                }
+            }
+            return found;
+        });
+    }
+
+    @Test
+    void entriesOfDeletedPostsDoNotShortenThePage() {
+        timeline(10);
+        stored.keySet().removeAll(List.of("p9", "p7"));
+
+        List<PostView> page = service.loadPage(user, null, 4);
+
+        assertEquals(List.of("p8", "p6", "p5", "p4"), ids(page));
+    }
+
+    @Test
+    void theNextPageStartsAfterTheLastPostReturned() {
+        timeline(10);
+        stored.remove("p5");
+
+        List<PostView> first = service.loadPage(user, null, 4);
+        PostView last = first.get(first.size() - 1);
+        List<PostView> second = service.loadPage(user, new FeedCursor(last.getCreatedAt(), last.getId()), 4);
+
+        assertEquals(List.of("p9", "p8", "p7", "p6"), ids(first));
+        assertEquals(List.of("p4", "p3", "p2", "p1"), ids(second));
+    }
+
+    @Test
+    void aCappedTimelineContinuesInThePostsCollectionAfterTheLastEntryRead() {
+        when(timelineService.getMaxSize()).thenReturn(3);
+        timeline(3);
+        stored.remove("p0");
+        when(postRepository.findViewPageByUserIdIn(anyList(), any(FeedCursor.class), anyInt()))
+                .thenReturn(List.of(view("older", T0.minusDays(1))));
+
+        List<PostView> page = service.loadPage(user, null, 4);
+
+        assertEquals(List.of("p2", "p1", "older"), ids(page));
+        ArgumentCaptor<FeedCursor> from = ArgumentCaptor.forClass(FeedCursor.class);
+        verify(postRepository).findViewPageByUserIdIn(anyList(), from.capture(), eq(2));
+        assertEquals("p0", from.getValue().getId());
+    }
+
+    @Test
+    void anUncappedTimelineIsTheWholeFeed() {
+        timeline(3);
+        stored.remove("p1");
+
+        assertEquals(List.of("p2", "p0"), ids(service.loadPage(user, null, 4)));
+        verify(postRepository, never()).findViewPageByUserIdIn(anyList(), any(), anyInt());
+    }
+
+    // Posts p0..p(size - 1), one minute apart, with the newest first in the timeline
+    private void timeline(int size) {
+        List<Timeline.Entry> entries = new ArrayList<>();
+        for (int i = size - 1; i >= 0; i--) {
+            PostView view = view("p" + i, T0.plusMinutes(i));
+            stored.put(view.getId(), view);
+            entries.add(new Timeline.Entry(view.getId(), "ann", view.getCreatedAt()));
+        }
+        Timeline timeline = new Timeline();
+        timeline.setUserId("u1");
+        timeline.setEntries(entries);
+        when(timelineService.getOrRebuild(eq("u1"), anyList())).thenReturn(timeline);
+    }
+
+    private static PostView view(String id, LocalDateTime createdAt) {
+        PostView view = new PostView();
+        view.setId(id);
+        view.setUserId("ann");
+        view.setCreatedAt(createdAt);
+        return view;
+    }
+
+    private static List<String> ids(List<PostView> posts) {
+        return posts.stream().map(PostView::getId).collect(Collectors.toList());
+    }
+}
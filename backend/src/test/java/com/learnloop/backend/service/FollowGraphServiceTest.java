@@ -0,0 +1,132 @@
+package com.learnloop.backend.service;
+
+import com.learnloop.backend.model.Follow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FollowGraphServiceTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final FollowGraphService service = new FollowGraphService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+    }
+
+    @Test
+    void answersFromTheLoadedGraph() {
+        load(follow("ann", "bob"), follow("ann", "cat"), follow("bob", "cat"));
+
+        assertTrue(service.isReady());
+        assertTrue(service.isFollowing("ann", "bob"));
+        assertFalse(service.isFollowing("bob", "ann"));
+        assertFalse(service.isFollowing("ann", "nobody"));
+        assertEquals(2, service.followingCount("ann"));
+        assertEquals(2, service.followerCount("cat"));
+        assertEquals(0, service.followerCount("nobody"));
+        assertEquals(Set.of("bob", "cat"), Set.copyOf(service.followees("ann")));
+        assertEquals(Set.of("ann", "bob"), Set.copyOf(service.followers("cat")));
+        assertTrue(service.followers("nobody").isEmpty());
+    }
+
+    @Test
+    void followChangesApplyInPlace() {
+        load(follow("ann", "bob"));
+
+        service.onFollow("ann", "cat");
+        service.onFollow("ann", "cat");
+        service.onUnfollow("ann", "bob");
+        service.onUnfollow("ann", "nobody");
+
+        assertEquals(List.of("cat"), service.followees("ann"));
+        assertEquals(0, service.followerCount("bob"));
+        assertEquals(1L, service.getStats().get("follows"));
+    }
+
+    @Test
+    void changesMadeWhileLoadingAreReplayedOnTheLoadedGraph() {
+        // The stream is read outside the lock, so these land in the queue of pending changes
+        Stream<Follow> follows = Stream.of(follow("ann", "bob"), follow("bob", "cat")).peek(follow -> {
+            if (follow.getFollowerId().equals("bob")) {
+                service.onFollow("cat", "ann");
+                service.onUnfollow("ann", "bob");
+            }
+        });
+        when(mongoTemplate.stream(any(Query.class), eq(Follow.class))).thenReturn(follows);
+
+        service.reload();
+
+        assertTrue(service.isFollowing("cat", "ann"));
+        assertFalse(service.isFollowing("ann", "bob"));
+        assertTrue(service.isFollowing("bob", "cat"));
+    }
+
+    @Test
+    void fallsBackToMongoUntilLoaded() {
+        when(mongoTemplate.exists(any(Query.class), eq(Follow.class))).thenReturn(true);
+
+        assertTrue(service.isFollowing("ann", "bob"));
+        verify(mongoTemplate).exists(any(Query.class), eq(Follow.class));
+        assertTrue(service.mostFollowed(5, Set.of()).isEmpty());
+    }
+
+    @Test
+    void aFailedLoadKeepsTheMongoFallback() {
+        when(mongoTemplate.stream(any(Query.class), eq(Follow.class))).thenThrow(new IllegalStateException("down"));
+
+        service.reload();
+
+        assertFalse(service.isReady());
+    }
+
+    @Test
+    void friendsOfFriendsCountsMutualFolloweesAndLeavesOutKnownAccounts() {
+        load(follow("ann", "bob"), follow("ann", "cat"),
+                follow("bob", "dan"), follow("cat", "dan"), follow("cat", "eve"),
+                follow("bob", "ann"), follow("bob", "cat"));
+
+        Map<String, Integer> candidates = service.friendsOfFriends("ann");
+
+        assertEquals(Map.of("dan", 2, "eve", 1), candidates);
+    }
+
+    @Test
+    void mostFollowedIsOrderedByFollowerCount() {
+        load(follow("a", "x"), follow("b", "x"), follow("c", "x"),
+                follow("a", "y"), follow("b", "y"),
+                follow("a", "z"));
+
+        assertEquals(List.of("x", "y"), service.mostFollowed(2, Set.of()));
+        assertEquals(List.of("y", "z"), service.mostFollowed(2, Set.of("x")));
+    }
+
+    private void load(Follow... follows) {
+        when(mongoTemplate.stream(any(Query.class), eq(Follow.class))).thenReturn(Stream.of(follows));
+        service.reload();
+    }
+
+    private static Follow follow(String followerId, String followeeId) {
+        Follow follow = new Follow();
+        follow.setFollowerId(followerId);
+        follow.setFolloweeId(followeeId);
+        return follow;
+    }
+}
@@ -0,0 +1,199 @@
+package com.learnloop.backend.service;
+
+import com.learnloop.backend.model.Post;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LikeCounterServiceTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final PostCacheService postCacheService = mock(PostCacheService.class);
+    private final LikeCounterService service = new LikeCounterService();
+    private final List<String> updatedPostIds = new ArrayList<>();
+    private final List<Update> updates = new ArrayList<>();
+    private BulkOperations bulk;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "postCacheService", postCacheService);
+        ReflectionTestUtils.setField(service, "instanceId", "app-1");
+        freshBulk();
+    }
+
+    // A new bulk that records its updates and succeeds unless told otherwise
+    private void freshBulk() {
+        updatedPostIds.clear();
+        updates.clear();
+        bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class)).thenReturn(bulk);
+        when(bulk.updateOne(any(Query.class), any(Update.class))).thenAnswer(invocation -> {
+            Query query = invocation.getArgument(0);
+            updatedPostIds.add(query.getQueryObject().getString("_id"));
+            updates.add(invocation.getArgument(1));
+            return bulk;
+        });
+    }
+
+    @Test
+    void pendingDeltasAreAddedToThePersistedCount() {
+        service.recordDelta("a", 1);
+        service.recordDelta("a", 1);
+        service.recordDelta("a", -1);
+
+        assertEquals(11, service.currentCount("a", 10, null));
+        assertEquals(0, service.currentCount("b", 0, null));
+    }
+
+    @Test
+    void flushedDeltasCountOnlyForPostsReadBeforeTheFlushReachedThem() {
+        service.recordDelta("a", 3);
+        service.flush();
+        Map<String, Long> flush = stamped(flushNumber(0));
+
+        assertEquals(1, updatedPostIds.size());
+        assertEquals(3L, updates.get(0).getUpdateObject().get("$inc", Document.class).get("likeCount"));
+        // Read before the flush: the batch is still added; read after: it is already in the count
+        assertEquals(13, service.currentCount("a", 10, null));
+        assertEquals(13, service.currentCount("a", 13, flush));
+        verify(postCacheService).invalidate("a");
+    }
+
+    @Test
+    void anotherInstancesStampDoesNotHideThisInstancesFlush() {
+        service.recordDelta("a", 2);
+        service.flush();
+        long flush = flushNumber(0);
+
+        // Its clock may be ahead; only the stamp under this instance's key counts
+        assertEquals(12, service.currentCount("a", 10, Map.of("app-2", flush + 60_000)));
+        assertEquals(12, service.currentCount("a", 12, Map.of("app-2", flush + 60_000, "app-1", flush)));
+    }
+
+    @Test
+    void unknownFailureIsResolvedAgainstThisInstancesStamp() {
+        service.recordDelta("a", 1);
+        when(bulk.execute()).thenThrow(new DataAccessResourceFailureException("timeout"));
+        service.flush();
+
+        freshBulk();
+        service.flush();
+
+        ArgumentCaptor<Query> resolve = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(resolve.capture(), eq(Post.class));
+        assertTrue(resolve.getValue().getQueryObject().toJson().contains("likeFlushes.app-1"));
+    }
+
+    @Test
+    void laterDeltasStayPendingAfterAFlush() {
+        service.recordDelta("a", 1);
+        service.flush();
+        Map<String, Long> flush = stamped(flushNumber(0));
+        service.recordDelta("a", 1);
+
+        assertEquals(12, service.currentCount("a", 11, flush));
+    }
+
+    @Test
+    void partialBulkFailureRequeuesOnlyTheFailedUpdates() {
+        service.recordDelta("a", 1);
+        service.recordDelta("b", 2);
+        service.recordDelta("c", 3);
+        when(bulk.execute()).thenThrow(bulkFailure(1));
+
+        service.flush();
+        Map<String, Long> flush = stamped(flushNumber(0));
+        String failed = updatedPostIds.get(1);
+
+        // Applied posts carry the stamp; the failed one does not and is pending again
+        for (String postId : List.of("a", "b", "c")) {
+            long delta = service.pendingDelta(postId, postId.equals(failed) ? null : flush);
+            assertEquals(postId.equals(failed) ? deltaOf(postId) : 0, delta);
+        }
+
+        freshBulk();
+        service.flush();
+
+        assertEquals(List.of(failed), updatedPostIds);
+    }
+
+    @Test
+    void unknownFailureIsResolvedFromTheStampsOnTheNextFlush() {
+        service.recordDelta("a", 1);
+        service.recordDelta("b", 2);
+        when(bulk.execute()).thenThrow(new DataAccessResourceFailureException("timeout"));
+        service.flush();
+        Map<String, Long> flush = stamped(flushNumber(0));
+
+        // Until resolved the batch still counts for posts read without its stamp
+        assertEquals(1, service.pendingDelta("a", null));
+        assertEquals(0, service.pendingDelta("a", flush));
+
+        Post unapplied = new Post();
+        unapplied.setId("b");
+        when(mongoTemplate.find(any(Query.class), eq(Post.class))).thenReturn(List.of(unapplied));
+        freshBulk();
+        service.flush();
+
+        assertEquals(List.of("b"), updatedPostIds);
+        assertEquals(1, service.pendingDelta("a", null));
+        assertEquals(0, service.pendingDelta("a", flush));
+    }
+
+    @Test
+    void nothingIsWrittenWithoutDeltas() {
+        service.recordDelta("a", 1);
+        service.recordDelta("a", -1);
+
+        service.flush();
+
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(Post.class));
+    }
+
+    private long flushNumber(int index) {
+        return ((Number) updates.get(index).getUpdateObject().get("$max", Document.class).get("likeFlushes.app-1")).longValue();
+    }
+
+    private static Map<String, Long> stamped(long flush) {
+        return Map.of("app-1", flush);
+    }
+
+    private static long deltaOf(String postId) {
+        return postId.charAt(0) - 'a' + 1;
+    }
+
+    private static BulkOperationException bulkFailure(int failedIndex) {
+        BulkWriteError error = new BulkWriteError(121, "validation failed", new BsonDocument(), failedIndex);
+        MongoBulkWriteException source = new MongoBulkWriteException(BulkWriteResult.unacknowledged(), List.of(error),
+                null, new ServerAddress(), Set.of());
+        return new BulkOperationException("bulk failed", source);
+    }
+}
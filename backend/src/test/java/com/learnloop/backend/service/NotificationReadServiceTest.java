@@ -0,0 +1,143 @@
+package com.learnloop.backend.service;
+
+import com.learnloop.backend.model.Notification;
+import com.learnloop.backend.model.NotificationReadState;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationReadServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final NotificationReadService service = new NotificationReadService();
+    private final BulkOperations bulk = mock(BulkOperations.class);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, NotificationReadState.class)).thenReturn(bulk);
+    }
+
+    @Test
+    void readBelowTheMarkOrWhenReadIndividually() {
+        NotificationReadState state = state(T0, "like:p1");
+
+        assertTrue(state.isRead(notification("old", T0.minusMinutes(1))));
+        assertFalse(state.isRead(notification("new", T0)));
+        assertTrue(state.isRead(notification("like:p1", T0.plusMinutes(5))));
+        assertFalse(state.isRead(notification("undated", null)));
+    }
+
+    @Test
+    void withoutAMarkOnlyTheExceptionsAreRead() {
+        NotificationReadState state = state(null, "follow:ann");
+
+        assertTrue(state.isRead(notification("follow:ann", T0)));
+        assertFalse(state.isRead(notification("follow:bob", T0.minusYears(1))));
+    }
+
+    @Test
+    void markReadMovesTheMarkUpToTheOldestUnreadNotification() {
+        NotificationReadState state = state(T0, "b");
+        when(mongoTemplate.findById("u1", NotificationReadState.class)).thenReturn(state);
+        when(mongoTemplate.find(any(Query.class), eq(Notification.class)))
+                .thenReturn(List.of(notification("a", T0.plusMinutes(1)), notification("b", T0.plusMinutes(2))));
+        when(bulk.execute()).thenReturn(modified(1));
+        when(mongoTemplate.findOne(any(Query.class), eq(Notification.class)))
+                .thenReturn(notification("c", T0.plusMinutes(3)));
+
+        int newlyRead = service.markRead("u1", List.of("a", "b"));
+
+        // "b" was already read, so only "a" is written and counted
+        assertEquals(1, newlyRead);
+        verify(bulk).updateOne(any(Query.class), any(Update.class));
+        Update advance = lastUpsert();
+        assertEquals(T0.plusMinutes(3), advance.getUpdateObject().get("$set", Document.class).get("readBefore"));
+        assertTrue(advance.getUpdateObject().containsKey("$pull"));
+        ArgumentCaptor<Update> adjust = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), adjust.capture(), eq(NotificationReadState.class));
+        Number delta = (Number) adjust.getValue().getUpdateObject().get("$inc", Document.class).get("unreadCount");
+        assertEquals(-1L, delta.longValue());
+    }
+
+    @Test
+    void whenEverythingIsReadTheMarkMovesToTheNewestException() {
+        NotificationReadState state = state(T0, "a", "b");
+        state.getReadKeys().get(0).setCreatedAt(T0.plusMinutes(1));
+        state.getReadKeys().get(1).setCreatedAt(T0.plusMinutes(4));
+        when(mongoTemplate.findById("u1", NotificationReadState.class)).thenReturn(state);
+        when(mongoTemplate.find(any(Query.class), eq(Notification.class)))
+                .thenReturn(List.of(notification("c", T0.plusMinutes(2))));
+        when(bulk.execute()).thenReturn(modified(1));
+
+        service.markRead("u1", List.of("c"));
+
+        assertEquals(T0.plusMinutes(4), lastUpsert().getUpdateObject().get("$set", Document.class).get("readBefore"));
+    }
+
+    @Test
+    void markingWhatIsAlreadyReadWritesNothing() {
+        when(mongoTemplate.findById("u1", NotificationReadState.class)).thenReturn(state(T0));
+        when(mongoTemplate.find(any(Query.class), eq(Notification.class)))
+                .thenReturn(List.of(notification("a", T0.minusDays(1))));
+
+        assertEquals(0, service.markRead("u1", List.of("a")));
+        verify(bulk, never()).execute();
+    }
+
+    private Update lastUpsert() {
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, atLeastOnce())
+                .upsert(any(Query.class), updates.capture(), eq(NotificationReadState.class));
+        List<Update> all = updates.getAllValues();
+        return all.get(all.size() - 1);
+    }
+
+    private static NotificationReadState state(LocalDateTime readBefore, String... readKeys) {
+        NotificationReadState state = new NotificationReadState();
+        state.setUserId("u1");
+        state.setReadBefore(readBefore);
+        List<NotificationReadState.ReadKey> keys = new ArrayList<>();
+        for (String key : readKeys) {
+            keys.add(new NotificationReadState.ReadKey(key, readBefore));
+        }
+        state.setReadKeys(keys);
+        return state;
+    }
+
+    private static Notification notification(String key, LocalDateTime createdAt) {
+        Notification notification = new Notification();
+        notification.setUserId("u1");
+        notification.setKey(key);
+        notification.setCreatedAt(createdAt);
+        return notification;
+    }
+
+    private static BulkWriteResult modified(int count) {
+        return BulkWriteResult.acknowledged(0, count, 0, count, List.of(), List.of());
+    }
+}
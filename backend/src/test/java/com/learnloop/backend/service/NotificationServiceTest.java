@@ -0,0 +1,106 @@
+package com.learnloop.backend.service;
+
+import com.learnloop.backend.model.Notification;
+import com.learnloop.backend.model.NotificationActor;
+import com.learnloop.backend.model.NotificationMember;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.BsonString;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationServiceTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final NotificationReadService notificationReadService = mock(NotificationReadService.class);
+    private final NotificationService service = new NotificationService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(service, "notificationReadService", notificationReadService);
+        ReflectionTestUtils.setField(service, "coalesceWindowMillis", 86_400_000L);
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void oneActorIsNamed() {
+        assertEquals("Ann", who(List.of("Ann"), 1));
+    }
+
+    @Test
+    void twoActorsAreBothNamed() {
+        assertEquals("Ann and Bob", who(List.of("Ann", "Bob"), 2));
+    }
+
+    @Test
+    void theRestAreCounted() {
+        assertEquals("Ann, Bob and 1 other", who(List.of("Ann", "Bob"), 3));
+        assertEquals("Ann, Bob and 48 others", who(List.of("Ann", "Bob"), 50));
+    }
+
+    @Test
+    void aSingleKnownNameStandsForTheWholeCount() {
+        // Only one sample left after the others were withdrawn
+        assertEquals("Ann", who(List.of("Ann"), 7));
+    }
+
+    @Test
+    void aReplayedLikeWhoseMemberWasCommittedCountsNothing() {
+        memberUpsert(UpdateResult.acknowledged(1, 0L, null));
+
+        service.onLike("p1", "owner", "ann");
+
+        verify(transactionTemplate).execute(any());
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Notification.class));
+        verify(notificationReadService, never()).adjustUnreadCount(anyString(), anyLong());
+    }
+
+    @Test
+    void aTransactionThatLostARaceRunsAgain() {
+        memberUpsert(UpdateResult.acknowledged(0, 0L, new BsonString("m1")), UpdateResult.acknowledged(1, 0L, null));
+        // The first run creates the member, then its actor document collides with a concurrent one
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(NotificationActor.class)))
+                .thenThrow(new DuplicateKeyException("userId_groupKey_actorId"));
+
+        service.onLike("p1", "owner", "ann");
+
+        // The second run finds the member the winner committed and leaves the counts alone
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(notificationReadService, never()).adjustUnreadCount(anyString(), anyLong());
+    }
+
+    private void memberUpsert(UpdateResult first, UpdateResult... rest) {
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(NotificationMember.class)))
+                .thenReturn(first, rest);
+    }
+
+    private static String who(List<String> names, int count) {
+        return ReflectionTestUtils.invokeMethod(NotificationService.class, "who", names, count);
+    }
+}
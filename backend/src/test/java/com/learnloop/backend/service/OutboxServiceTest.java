@@ -0,0 +1,255 @@
+package com.learnloop.backend.service;
+
+import com.learnloop.backend.event.DomainEvent;
+import com.learnloop.backend.event.DomainEventConsumer;
+import com.learnloop.backend.event.LikeToggledEvent;
+import com.learnloop.backend.event.PostDeletedEvent;
+import com.learnloop.backend.model.OutboxEntry;
+import com.learnloop.backend.model.Post;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxServiceTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final OutboxService service = new OutboxService(100, 1_000, MAX_ATTEMPTS);
+    private final List<String> handledPostIds = new ArrayList<>();
+    private final List<DomainEvent> handled = new ArrayList<>();
+    private String failingPostId;
+    private boolean failWithError;
+
+    @BeforeEach
+    void setUp() {
+        DomainEventConsumer consumer = new DomainEventConsumer() {
+            @Override
+            public String getConsumerName() {
+                return "test";
+            }
+
+            @Override
+            public void onEvents(List<DomainEvent> events) {
+                for (DomainEvent event : events) {
+                    if (postId(event).equals(failingPostId)) {
+                        if (failWithError) {
+                            throw new AssertionError("cannot handle " + failingPostId);
+                        }
+                        throw new IllegalStateException("cannot handle " + failingPostId);
+                    }
+                }
+                events.forEach(event -> handledPostIds.add(postId(event)));
+                handled.addAll(events);
+            }
+        };
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(service, "consumers", List.of(consumer));
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void aLikeIsDeliveredAsItWasRecordedAndCarriesItsEntryId() {
+        service.writeWithEvent(() -> true, liked -> new LikeToggledEvent("p1", "ann", "bob", liked));
+        ArgumentCaptor<OutboxEntry> recorded = ArgumentCaptor.forClass(OutboxEntry.class);
+        verify(mongoTemplate).insert(recorded.capture());
+        OutboxEntry entry = recorded.getValue();
+        entry.setId("e1");
+        claimable(entry);
+
+        drain();
+
+        LikeToggledEvent like = (LikeToggledEvent) handled.get(0);
+        assertEquals("e1", like.getId());
+        assertEquals(List.of("p1", "ann", "bob"), List.of(like.getPostId(), like.getPostOwnerId(), like.getUserId()));
+        assertTrue(like.isLiked());
+    }
+
+    @Test
+    void aWriteThatChangedNothingRecordsNoEntry() {
+        boolean changed = service.writeWithEvent(() -> false,
+                liked -> liked ? new LikeToggledEvent("p1", "ann", "bob", true) : null);
+
+        assertFalse(changed);
+        verify(mongoTemplate, never()).insert(any(OutboxEntry.class));
+        assertEquals(0L, service.getStats().get("appended"));
+    }
+
+    @Test
+    void claimsOnlyEntriesThatAreStillDue() {
+        claimable(deleted("e1", "p1", 0));
+
+        drain();
+
+        ArgumentCaptor<Query> claimQuery = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> claimUpdate = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateMulti(claimQuery.capture(), claimUpdate.capture(), eq(OutboxEntry.class));
+        assertTrue(claimQuery.getValue().getQueryObject().containsKey("availableAt"));
+        Document set = claimUpdate.getValue().getUpdateObject().get("$set", Document.class);
+        assertTrue(set.containsKey("claim"));
+        assertTrue(((LocalDateTime) set.get("availableAt")).isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    void aDeliveredBatchIsRemovedByItsClaim() {
+        claimable(deleted("e1", "p1", 0), deleted("e2", "p2", 0));
+
+        drain();
+
+        assertEquals(List.of("p1", "p2"), handledPostIds);
+        List<Query> removed = removedEntries();
+        assertEquals(1, removed.size());
+        assertTrue(removed.get(0).getQueryObject().containsKey("claim"));
+        assertNull(removed.get(0).getQueryObject().get("_id"));
+    }
+
+    @Test
+    void onlyTheFailingEntryIsRetriedAndTheOthersAreAcked() {
+        failingPostId = "p2";
+        claimable(deleted("e1", "p1", 0), deleted("e2", "p2", 0), deleted("e3", "p3", 0));
+
+        drain();
+
+        assertEquals(List.of("p1", "p3"), handledPostIds);
+        assertEquals(List.of("e1", "e3"), removedEntries().stream()
+                .map(query -> query.getQueryObject().get("_id"))
+                .collect(Collectors.toList()));
+        ArgumentCaptor<Query> retried = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> retry = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(retried.capture(), retry.capture(), eq(OutboxEntry.class));
+        assertEquals("e2", retried.getValue().getQueryObject().get("_id"));
+        assertEquals(1, retry.getValue().getUpdateObject().get("$inc", Document.class).get("attempts"));
+        assertTrue(retry.getValue().getUpdateObject().get("$set", Document.class).getString("lastError")
+                .contains("cannot handle p2"));
+    }
+
+    @Test
+    void anErrorFromAConsumerIsRetriedLikeAnyFailure() {
+        failingPostId = "p1";
+        failWithError = true;
+        claimable(deleted("e1", "p1", 0), deleted("e2", "p2", 0));
+
+        drain();
+
+        assertEquals(List.of("p2"), handledPostIds);
+        ArgumentCaptor<Update> retry = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), retry.capture(), eq(OutboxEntry.class));
+        assertTrue(retry.getValue().getUpdateObject().get("$set", Document.class).getString("lastError")
+                .contains("AssertionError"));
+    }
+
+    @Test
+    void anUnreadableEntryIsRetriedWithoutHoldingBackTheOthers() {
+        OutboxEntry broken = deleted("e1", "p1", 0);
+        broken.setType(OutboxEntry.POST_CREATED);
+        broken.setPost(null);
+        claimable(broken, deleted("e2", "p2", 0));
+
+        drain();
+
+        assertEquals(List.of("p2"), handledPostIds);
+        assertEquals(List.of("e2"), removedEntries().stream()
+                .map(query -> query.getQueryObject().get("_id"))
+                .collect(Collectors.toList()));
+        ArgumentCaptor<Query> retried = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateFirst(retried.capture(), any(Update.class), eq(OutboxEntry.class));
+        assertEquals("e1", retried.getValue().getQueryObject().get("_id"));
+    }
+
+    @Test
+    void anEntryOutOfAttemptsIsMovedToTheDeadLetters() {
+        failingPostId = "p1";
+        OutboxEntry entry = deleted("e1", "p1", MAX_ATTEMPTS - 1);
+        claimable(entry);
+
+        drain();
+
+        verify(mongoTemplate).insert(entry, "outbox_dead_letters");
+        assertEquals(MAX_ATTEMPTS, entry.getAttempts());
+        assertNull(entry.getClaim());
+        assertEquals("e1", removedEntries().get(0).getQueryObject().get("_id"));
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(OutboxEntry.class));
+    }
+
+    @Test
+    void aCreationOvertakenByItsDeletionIsAckedWithoutDelivery() {
+        OutboxEntry created = deleted("e1", "p1", 0);
+        created.setType(OutboxEntry.POST_CREATED);
+        claimable(created);
+        when(mongoTemplate.find(any(Query.class), eq(Post.class))).thenReturn(List.of());
+
+        drain();
+
+        assertTrue(handledPostIds.isEmpty());
+        assertEquals(1, removedEntries().size());
+        assertEquals(1L, service.getStats().get("skipped"));
+    }
+
+    private void drain() {
+        ReflectionTestUtils.invokeMethod(service, "drain");
+    }
+
+    // The due-entry lookup returns their ids, and the claimed-entry lookup the entries themselves
+    private void claimable(OutboxEntry... entries) {
+        List<OutboxEntry> ids = new ArrayList<>();
+        for (OutboxEntry entry : entries) {
+            OutboxEntry id = new OutboxEntry();
+            id.setId(entry.getId());
+            ids.add(id);
+        }
+        when(mongoTemplate.find(any(Query.class), eq(OutboxEntry.class))).thenReturn(ids, List.of(entries));
+    }
+
+    private List<Query> removedEntries() {
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, atLeast(0)).remove(removed.capture(), eq(OutboxEntry.class));
+        return removed.getAllValues();
+    }
+
+    private static OutboxEntry deleted(String entryId, String postId, int attempts) {
+        Post post = new Post();
+        post.setId(postId);
+        OutboxEntry entry = new OutboxEntry();
+        entry.setId(entryId);
+        entry.setType(OutboxEntry.POST_DELETED);
+        entry.setPost(post);
+        entry.setCreatedAt(LocalDateTime.now());
+        entry.setAvailableAt(entry.getCreatedAt());
+        entry.setAttempts(attempts);
+        return entry;
+    }
+
+    private static String postId(DomainEvent event) {
+        if (event instanceof LikeToggledEvent like) {
+            return like.getPostId();
+        }
+        return ((PostDeletedEvent) event).getPost().getId();
+    }
+}
@@ -0,0 +1,120 @@
+package com.learnloop.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BoundedCacheTest {
+
+    private static final long TTL = 60_000;
+
+    @Test
+    void loadsOnceAndServesHits() {
+        BoundedCache<String, String> cache = new BoundedCache<>(100, TTL);
+        int[] loads = {0};
+
+        cache.get("a", key -> "A" + ++loads[0]);
+        String value = cache.get("a", key -> "A" + ++loads[0]);
+
+        assertEquals("A1", value);
+        assertEquals(1, loads[0]);
+    }
+
+    @Test
+    void valueInvalidatedDuringItsLoadIsReturnedButNotStored() {
+        BoundedCache<String, String> cache = new BoundedCache<>(100, TTL);
+
+        String value = cache.get("a", key -> {
+            cache.invalidate("a");
+            return "stale";
+        });
+
+        assertEquals("stale", value);
+        assertNull(cache.getIfPresent("a"));
+    }
+
+    @Test
+    void invalidatingAnotherKeyDoesNotStopALoadFromBeingStored() {
+        BoundedCache<String, String> cache = new BoundedCache<>(100, TTL);
+
+        cache.get("a", key -> {
+            cache.invalidate("b");
+            return "A";
+        });
+
+        assertEquals("A", cache.getIfPresent("a"));
+    }
+
+    @Test
+    void batchLoadStoresOnlyTheKeysThatWereNotInvalidated() {
+        BoundedCache<String, String> cache = new BoundedCache<>(100, TTL);
+
+        Map<String, String> values = cache.getAll(List.of("a", "b"), missing -> {
+            cache.invalidate("b");
+            Map<String, String> loaded = new HashMap<>();
+            missing.forEach(key -> loaded.put(key, key.toUpperCase()));
+            return loaded;
+        });
+
+        assertEquals(Map.of("a", "A", "b", "B"), values);
+        assertEquals("A", cache.getIfPresent("a"));
+        assertNull(cache.getIfPresent("b"));
+    }
+
+    @Test
+    void invalidateAllStopsEveryLoadInFlight() {
+        BoundedCache<String, String> cache = new BoundedCache<>(100, TTL);
+
+        cache.get("a", key -> {
+            cache.invalidateAll();
+            return "A";
+        });
+
+        assertNull(cache.getIfPresent("a"));
+    }
+
+    @Test
+    void staysWithinItsMaximumSize() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(50, TTL);
+
+        for (int i = 0; i < 1_000; i++) {
+            cache.get(i, key -> key);
+        }
+
+        assertEquals(50, cache.size());
+    }
+
+    @Test
+    void frequentlyReadEntriesSurviveAScanOfOneOffReads() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(1_000, TTL);
+        for (int round = 0; round < 5; round++) {
+            for (int hot = 0; hot < 100; hot++) {
+                cache.get(hot, key -> key);
+            }
+        }
+
+        for (int cold = 10_000; cold < 12_000; cold++) {
+            cache.get(cold, key -> key);
+        }
+
+        for (int hot = 0; hot < 100; hot++) {
+            assertNotNull(cache.getIfPresent(hot));
+        }
+    }
+
+    @Test
+    void expiredEntriesAreLoadedAgain() throws InterruptedException {
+        BoundedCache<String, String> cache = new BoundedCache<>(100, 1);
+        cache.get("a", key -> "old");
+
+        Thread.sleep(5);
+
+        assertEquals("new", cache.get("a", key -> "new"));
+    }
+}
@@ -0,0 +1,64 @@
+package com.learnloop.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FeedCursorTest {
+
+    @Test
+    void decodesWhatItEncoded() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_000_000);
+        FeedCursor decoded = FeedCursor.decode(new FeedCursor(createdAt, "66a1f0c2e4b0a1b2c3d4e5f6").encode());
+
+        assertEquals(createdAt, decoded.getCreatedAt());
+        assertEquals("66a1f0c2e4b0a1b2c3d4e5f6", decoded.getId());
+    }
+
+    @Test
+    void keepsAMissingDate() {
+        FeedCursor decoded = FeedCursor.decode(new FeedCursor(null, "abc").encode());
+
+        assertNull(decoded.getCreatedAt());
+        assertEquals("abc", decoded.getId());
+    }
+
+    @Test
+    void onlyTheFirstSeparatorSplitsTheDateFromTheId() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+        FeedCursor decoded = FeedCursor.decode(new FeedCursor(createdAt, "a|b").encode());
+
+        assertEquals(createdAt, decoded.getCreatedAt());
+        assertEquals("a|b", decoded.getId());
+    }
+
+    @Test
+    void isUrlSafe() {
+        String encoded = new FeedCursor(LocalDateTime.of(2024, 1, 1, 0, 0), "???>>>").encode();
+
+        assertEquals(encoded, encoded.replaceAll("[^A-Za-z0-9_-]", ""));
+    }
+
+    @Test
+    void noCursorMeansTheFirstPage() {
+        assertNull(FeedCursor.decode(null));
+        assertNull(FeedCursor.decode(" "));
+    }
+
+    @Test
+    void rejectsCursorsItDidNotWrite() {
+        assertThrows(IllegalArgumentException.class, () -> FeedCursor.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> FeedCursor.decode(encode("no separator")));
+        assertThrows(IllegalArgumentException.class, () -> FeedCursor.decode(encode("yesterday|abc")));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
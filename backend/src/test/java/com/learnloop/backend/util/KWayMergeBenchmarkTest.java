@@ -0,0 +1,64 @@
+package com.learnloop.backend.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the hybrid feed's merge of a timeline page and a celebrity page
+ * against sorting every followed author's posts, which is what the old
+ * findByUserIdIn path left to the client. In memory only, so it measures the
+ * CPU side of the read and not the Mongo round trips.
+ *
+ * Run with: mvn test -Dtest=KWayMergeBenchmarkTest -Dbenchmarks=true
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class KWayMergeBenchmarkTest {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int POSTS_PER_AUTHOR = 50;
+    private static final int ROUNDS = 2_000;
+    private static final Comparator<Long> NEWEST_FIRST = Comparator.reverseOrder();
+
+    @Test
+    void mergeAgainstSortingEveryFollowedPost() {
+        Random random = new Random(42);
+        for (int followees : new int[]{10, 100, 1_000}) {
+            List<Long> allPosts = new ArrayList<>(followees * POSTS_PER_AUTHOR);
+            for (int i = 0; i < followees * POSTS_PER_AUTHOR; i++) {
+                allPosts.add(random.nextLong());
+            }
+            List<Long> newest = allPosts.stream().sorted(NEWEST_FIRST).limit(PAGE_SIZE).collect(Collectors.toList());
+            // The timeline and the celebrity query each return at most one page
+            List<List<Long>> sources = List.of(
+                    newest.stream().filter(p -> p % 2 == 0).collect(Collectors.toList()),
+                    newest.stream().filter(p -> p % 2 != 0).collect(Collectors.toList()));
+
+            long sortNanos = time(() -> allPosts.stream().sorted(NEWEST_FIRST).limit(PAGE_SIZE).collect(Collectors.toList()));
+            long mergeNanos = time(() -> KWayMerge.merge(sources, NEWEST_FIRST, Function.identity(), PAGE_SIZE));
+
+            assertEquals(newest, KWayMerge.merge(sources, NEWEST_FIRST, Function.identity(), PAGE_SIZE));
+            System.out.printf("%,d followees: sort all %,d ns/page, merge %,d ns/page%n",
+                    followees, sortNanos / ROUNDS, mergeNanos / ROUNDS);
+        }
+    }
+
+    private static long time(Runnable page) {
+        for (int i = 0; i < ROUNDS; i++) {
+            page.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            page.run();
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,63 @@
+package com.learnloop.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KWayMergeTest {
+
+    private static final Comparator<Integer> DESCENDING = Comparator.reverseOrder();
+
+    @Test
+    void mergesSortedSourcesIntoOneOrder() {
+        List<Integer> merged = KWayMerge.merge(
+                List.of(List.of(9, 6, 3), List.of(8, 5, 2), List.of(7, 4, 1)),
+                DESCENDING, Function.identity(), 10);
+
+        assertEquals(List.of(9, 8, 7, 6, 5, 4, 3, 2, 1), merged);
+    }
+
+    @Test
+    void stopsAtTheLimit() {
+        List<Integer> merged = KWayMerge.merge(
+                List.of(List.of(10, 8, 6, 4), List.of(9, 7, 5, 3)),
+                DESCENDING, Function.identity(), 3);
+
+        assertEquals(List.of(10, 9, 8), merged);
+    }
+
+    @Test
+    void dropsItemsWhoseKeyWasAlreadySeen() {
+        List<Integer> merged = KWayMerge.merge(
+                List.of(List.of(5, 3, 1), List.of(5, 4, 3)),
+                DESCENDING, Function.identity(), 10);
+
+        assertEquals(List.of(5, 4, 3, 1), merged);
+    }
+
+    @Test
+    void skipsEmptySources() {
+        List<Integer> merged = KWayMerge.merge(
+                List.of(List.of(), List.of(2, 1), List.of()),
+                DESCENDING, Function.identity(), 10);
+
+        assertEquals(List.of(2, 1), merged);
+        assertTrue(KWayMerge.merge(List.<List<Integer>>of(), DESCENDING, Function.identity(), 10).isEmpty());
+    }
+
+    @Test
+    void keepsItemsThatCompareEqualButHaveDifferentKeys() {
+        List<String> merged = KWayMerge.merge(
+                List.of(List.of("b1", "a1"), List.of("b2", "a2")),
+                Comparator.comparing((String s) -> s.charAt(0)).reversed(), Function.identity(), 4);
+
+        assertEquals(4, merged.size());
+        assertEquals(List.of('b', 'b', 'a', 'a'), merged.stream().map(s -> s.charAt(0)).collect(Collectors.toList()));
+    }
+}
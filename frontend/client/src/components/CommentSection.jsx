@@ -14,11 +14,32 @@ const CommentSection = ({ post, loggedInUserId, onPostUpdate, autoFocus = false,
   const [isSubmitting, setIsSubmitting] = useState(false);
   const [error, setError] = useState("");
   const [replyingTo, setReplyingTo] = useState(null);
+  const [thread, setThread] = useState(post.comments);
+  const [nextCursor, setNextCursor] = useState(null);
   const textareaRef = useRef(null);
   const emojiPickerRef = useRef(null);
   const token = localStorage.getItem("token");
   const navigate = useNavigate();
 
+  // The post only carries its newest comments; the full thread is paged from the API
+  const loadComments = async (cursor = null) => {
+    try {
+      const response = await axios.get(`http://localhost:8080/api/posts/${post.id}/comments`, {
+        params: cursor ? { cursor } : {},
+      });
+      setThread((prev) => (cursor ? [...prev, ...response.data] : response.data));
+      setNextCursor(response.headers["x-next-cursor"] || null);
+    } catch (err) {
+      console.error("Error loading comments:", err);
+    }
+  };
+
+  useEffect(() => {
+    if (!condensed) {
+      loadComments();
+    }
+  }, [post.id, condensed]);
+
   useEffect(() => {
     if (autoFocus && textareaRef.current) {
       textareaRef.current.focus();
@@ -75,6 +96,7 @@ const CommentSection = ({ post, loggedInUserId, onPostUpdate, autoFocus = false,
       );
 
       onPostUpdate(response.data);
+      if (!condensed) loadComments();
       setCommentContent("");
       setError("");
       setReplyingTo(null);
@@ -108,6 +130,7 @@ const CommentSection = ({ post, loggedInUserId, onPostUpdate, autoFocus = false,
       );
 
       onPostUpdate(response.data);
+      if (!condensed) loadComments();
       setEditingCommentId(null);
       setEditingContent("");
       setError("");
@@ -132,6 +155,7 @@ const CommentSection = ({ post, loggedInUserId, onPostUpdate, autoFocus = false,
       );
 
       onPostUpdate(response.data);
+      if (!condensed) loadComments();
     } catch (err) {
       console.error("Error deleting comment:", err);
       setError(err.response?.data || "Failed to delete comment");
@@ -278,7 +302,7 @@ const CommentSection = ({ post, loggedInUserId, onPostUpdate, autoFocus = false,
         <div className="bg-gray-50 rounded-lg p-4">
           {replyingTo && (
             <div className="mb-2 text-sm text-gray-500">
-              Replying to <span className="font-medium text-indigo-600">@{post.comments.find(c => c.id === replyingTo)?.userName}</span>
+              Replying to <span className="font-medium text-indigo-600">@{thread.find(c => c.id === replyingTo)?.userName}</span>
               <button 
                 onClick={() => setReplyingTo(null)} 
                 className="ml-2 text-gray-400 hover:text-gray-600"
@@ -401,8 +425,8 @@ const CommentSection = ({ post, loggedInUserId, onPostUpdate, autoFocus = false,
 
       {/* Comments List */}
       <div className="space-y-4">
-        {post.comments.length > 0 ? (
-          post.comments
+        {thread.length > 0 ? (
+          thread
             .filter(comment => !comment.parentId) // Only show top-level comments
             .map(comment => renderComment(comment))
         ) : (
@@ -413,6 +437,14 @@ const CommentSection = ({ post, loggedInUserId, onPostUpdate, autoFocus = false,
             <p>No comments yet. Be the first to comment!</p>
           </div>
         )}
+        {nextCursor && (
+          <button
+            onClick={() => loadComments(nextCursor)}
+            className="text-sm text-indigo-600 hover:text-indigo-800 font-medium"
+          >
+            Load more comments
+          </button>
+        )}
       </div>
     </div>
   );
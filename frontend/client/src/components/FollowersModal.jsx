@@ -2,10 +2,25 @@ import React from 'react';
 import axios from 'axios';
 import { X, User, Check } from 'react-feather';
 
-const FollowersModal = ({ followers, onClose, loggedInUserId, setProfile }) => {
+const FollowersModal = ({ followers, userId, initialCursor, onClose, loggedInUserId, setProfile }) => {
   const [isRemoving, setIsRemoving] = React.useState(null);
   const [showSuccess, setShowSuccess] = React.useState(false);
   const [localFollowers, setLocalFollowers] = React.useState(followers);
+  const [nextCursor, setNextCursor] = React.useState(initialCursor);
+
+  const loadMore = async () => {
+    try {
+      const token = localStorage.getItem('token');
+      const response = await axios.get(`http://localhost:8080/api/profile/${userId}/followers`, {
+        params: { cursor: nextCursor },
+        headers: { Authorization: `Bearer ${token}` },
+      });
+      setLocalFollowers(prev => [...prev, ...response.data]);
+      setNextCursor(response.headers['x-next-cursor'] || null);
+    } catch (err) {
+      console.error('Error loading followers:', err);
+    }
+  };
 
   const handleRemoveFollower = async (followerId) => {
     setIsRemoving(followerId);
@@ -43,7 +58,8 @@ const FollowersModal = ({ followers, onClose, loggedInUserId, setProfile }) => {
   // Sync local state with props
   React.useEffect(() => {
     setLocalFollowers(followers);
-  }, [followers]);
+    setNextCursor(initialCursor);
+  }, [followers, initialCursor]);
 
   return (
     <div className="fixed inset-0 bg-black/30 backdrop-blur-sm flex items-center justify-center z-50 p-4">
@@ -114,6 +130,16 @@ const FollowersModal = ({ followers, onClose, loggedInUserId, setProfile }) => {
               </div>
             ))
           )}
+          {nextCursor && (
+            <div className="p-4 text-center">
+              <button
+                onClick={loadMore}
+                className="text-sm text-sky-600 hover:text-sky-800 font-medium"
+              >
+                Load more
+              </button>
+            </div>
+          )}
         </div>
 
         {/* Footer */}
@@ -2,10 +2,25 @@ import React from "react";
 import axios from "axios";
 import { X, User, Check } from "react-feather";
 
-const FollowingModal = ({ followingUsers, onClose, loggedInUserId, setProfile, fetchFollowing }) => {
+const FollowingModal = ({ followingUsers, userId, initialCursor, onClose, loggedInUserId, setProfile, fetchFollowing }) => {
   const [isUnfollowing, setIsUnfollowing] = React.useState(null);
   const [showSuccess, setShowSuccess] = React.useState(false);
   const [localFollowing, setLocalFollowing] = React.useState(followingUsers);
+  const [nextCursor, setNextCursor] = React.useState(initialCursor);
+
+  const loadMore = async () => {
+    try {
+      const token = localStorage.getItem("token");
+      const response = await axios.get(`http://localhost:8080/api/profile/${userId}/following`, {
+        params: { cursor: nextCursor },
+        headers: { "Authorization": `Bearer ${token}` },
+      });
+      setLocalFollowing(prev => [...prev, ...response.data]);
+      setNextCursor(response.headers["x-next-cursor"] || null);
+    } catch (err) {
+      console.error("Error loading following users:", err);
+    }
+  };
 
   const handleUnfollow = async (userIdToUnfollow) => {
     setIsUnfollowing(userIdToUnfollow);
@@ -50,7 +65,8 @@ const FollowingModal = ({ followingUsers, onClose, loggedInUserId, setProfile, f
   // Update local state when parent's followingUsers changes
   React.useEffect(() => {
     setLocalFollowing(followingUsers);
-  }, [followingUsers]);
+    setNextCursor(initialCursor);
+  }, [followingUsers, initialCursor]);
 
   return (
     <div className="fixed inset-0 bg-black/30 backdrop-blur-sm flex items-center justify-center z-50 p-4">
@@ -121,6 +137,16 @@ const FollowingModal = ({ followingUsers, onClose, loggedInUserId, setProfile, f
               </div>
             ))
           )}
+          {nextCursor && (
+            <div className="p-4 text-center">
+              <button
+                onClick={loadMore}
+                className="text-sm text-sky-600 hover:text-sky-800 font-medium"
+              >
+                Load more
+              </button>
+            </div>
+          )}
         </div>
 
         {/* Footer */}
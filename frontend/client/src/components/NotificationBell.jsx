@@ -4,6 +4,7 @@ import axios from "axios";
 import dayjs from "dayjs";
 import relativeTime from "dayjs/plugin/relativeTime";
 import { motion, AnimatePresence } from "framer-motion";
+import { subscribeToNotifications, onReconnect } from "../services/WebSocketService";
 dayjs.extend(relativeTime);
 
 const BellIcon = ({ hasUnread }) => (
@@ -25,6 +26,7 @@ const NotificationBell = ({ userId }) => {
   const [showDropdown, setShowDropdown] = useState(false);
   const [isLoading, setIsLoading] = useState(false);
   const [hasNewNotifications, setHasNewNotifications] = useState(false);
+  const [unreadCount, setUnreadCount] = useState(0);
   const [justReadIds, setJustReadIds] = useState(new Set());
   const lastReadTimeRef = useRef(null);
   const dropdownRef = useRef(null);
@@ -37,7 +39,6 @@ const NotificationBell = ({ userId }) => {
     try {
       const res = await axios.get(`http://localhost:8080/api/user-notifications/${userId}`);
       setNotifications(res.data || []);
-      setHasNewNotifications(res.data.some(n => !n.read));
     } catch (err) {
       console.error("Error fetching notifications:", err);
     } finally {
@@ -67,10 +68,44 @@ const NotificationBell = ({ userId }) => {
 
   useEffect(() => {
     fetchNotifications();
-    const interval = setInterval(fetchNotifications, 10000);
-    return () => clearInterval(interval);
   }, [fetchNotifications]);
 
+  // The badge counts every unread notification, not just the loaded page
+  const fetchUnreadCount = useCallback(() => {
+    if (!userId) return;
+    axios.get(`http://localhost:8080/api/user-notifications/${userId}/unread-count`)
+      .then(res => {
+        setUnreadCount(res.data.unreadCount);
+        setHasNewNotifications(res.data.unreadCount > 0);
+      })
+      .catch(err => console.error("Error fetching unread count:", err));
+  }, [userId]);
+
+  useEffect(() => {
+    fetchUnreadCount();
+  }, [fetchUnreadCount]);
+
+  // Pushes sent while the socket was down are lost, so catch up once it is back
+  useEffect(() => onReconnect(() => {
+    fetchUnreadCount();
+    fetchNotifications();
+  }), [fetchUnreadCount, fetchNotifications]);
+
+  // New and withdrawn notifications are pushed with the unread count, so there is no polling
+  useEffect(() => {
+    if (!userId) return;
+    return subscribeToNotifications(userId, (frame) => {
+      if (frame.notification) {
+        setNotifications(prev => [frame.notification, ...prev.filter(n => n.id !== frame.notification.id)]);
+      }
+      if (frame.withdrawnId) {
+        setNotifications(prev => prev.filter(n => n.id !== frame.withdrawnId));
+      }
+      setUnreadCount(frame.unreadCount);
+      setHasNewNotifications(frame.unreadCount > 0);
+    });
+  }, [userId]);
+
   const handleToggleDropdown = async () => {
     const nextState = !showDropdown;
     setShowDropdown(nextState);
@@ -80,18 +115,15 @@ const NotificationBell = ({ userId }) => {
       const ids = unread.map(n => n.id);
 
       try {
-        await Promise.all(
-          ids.map(id =>
-            axios.post(`http://localhost:8080/api/user-notifications/mark-read`, {
-              userId,
-              notificationId: id,
-            })
-          )
-        );
+        await axios.post(`http://localhost:8080/api/user-notifications/mark-read`, {
+          userId,
+          notificationIds: ids,
+        });
 
         lastReadTimeRef.current = Date.now();
         setJustReadIds(new Set(ids));
         setHasNewNotifications(false);
+        setUnreadCount(prev => Math.max(prev - ids.length, 0));
 
         setNotifications(prev =>
           prev.map(n => (ids.includes(n.id) ? { ...n, read: true } : n))
@@ -105,7 +137,18 @@ const NotificationBell = ({ userId }) => {
     }
   };
 
-  const unreadCount = notifications.filter(n => !n.read).length;
+  // Everything up to now, including notifications further down than the loaded page
+  const handleMarkAllRead = async () => {
+    try {
+      await axios.post(`http://localhost:8080/api/user-notifications/mark-all-read-before`, { userId });
+      lastReadTimeRef.current = Date.now();
+      setHasNewNotifications(false);
+      setUnreadCount(0);
+      setNotifications(prev => prev.map(n => ({ ...n, read: true })));
+    } catch (err) {
+      console.error("Error marking all notifications as read:", err);
+    }
+  };
 
   const grouped = notifications
     .sort((a, b) => new Date(b.timestamp) - new Date(a.timestamp))
@@ -170,7 +213,7 @@ const NotificationBell = ({ userId }) => {
             <div className="sticky top-0 bg-white z-10 p-4 border-b flex justify-between items-center">
               <h3 className="font-bold text-lg text-gray-800">Notifications</h3>
               <button
-                onClick={() => {}}
+                onClick={handleMarkAllRead}
                 disabled={unreadCount === 0}
                 className="p-1.5 rounded-md hover:bg-gray-100 disabled:opacity-40"
                 title="Mark all as read"
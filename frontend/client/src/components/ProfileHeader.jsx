@@ -13,8 +13,10 @@ const ProfileHeader = ({
   setShowPostForm,
   setShowFollowingModal,
   setFollowingUsers,
+  setFollowingCursor,
   setShowFollowersModal, 
   setFollowers,
+  setFollowersCursor,
 }) => {
   const [isLoading, setIsLoading] = useState(false);
   const [isEditingProfile, setIsEditingProfile] = useState(false);
@@ -138,7 +140,7 @@ const ProfileHeader = ({
         }
       );
       setIsFollowing(true);
-      setProfile({ ...profile, followers: [...(profile.followers || []), loggedInUserId] });
+      setProfile({ ...profile, followerCount: (profile.followerCount || 0) + 1 });
     } catch (err) {
       setError("Error following user: " + (err.response?.data || err.message));
       console.error("Error following user:", err);
@@ -150,12 +152,11 @@ const ProfileHeader = ({
   const handleFollowersClick = async () => {
     try {
       const token = localStorage.getItem("token");
-      const idsParam = profile.followers.join(',');
-      const response = await axios.get(`http://localhost:8080/api/profile/followers`, {
-        params: { ids: idsParam },
+      const response = await axios.get(`http://localhost:8080/api/profile/${userId}/followers`, {
         headers: { "Authorization": `Bearer ${token}` },
       });
       setFollowers(response.data);
+      setFollowersCursor(response.headers["x-next-cursor"] || null);
       setShowFollowersModal(true);
     } catch (err) {
       console.error("Error fetching followers:", err);
@@ -177,7 +178,7 @@ const ProfileHeader = ({
         }
       );
       setIsFollowing(false);
-      setProfile({ ...profile, followers: profile.followers.filter((id) => id !== loggedInUserId) });
+      setProfile({ ...profile, followerCount: Math.max((profile.followerCount || 0) - 1, 0) });
     } catch (err) {
       setError("Error unfollowing user: " + (err.response?.data || err.message));
       console.error("Error unfollowing user:", err);
@@ -189,15 +190,13 @@ const ProfileHeader = ({
   const handleFollowingClick = async () => {
     try {
       const token = localStorage.getItem("token");
-      const idsParam = profile.following.join(',');
-      
-      const response = await axios.get(`http://localhost:8080/api/profile/following`, {
-        params: { ids: idsParam },
+      const response = await axios.get(`http://localhost:8080/api/profile/${userId}/following`, {
         headers: {
           "Authorization": `Bearer ${token}`,
         },
       });
       setFollowingUsers(response.data);
+      setFollowingCursor(response.headers["x-next-cursor"] || null);
       setShowFollowingModal(true);
     } catch (err) {
       setError("Error fetching following users: " + (err.response?.data || err.message));
@@ -365,7 +364,7 @@ const ProfileHeader = ({
         <div className="mt-8 pt-6 border-t border-gray-200">
           <div className="flex justify-around">
             <div className="text-center px-4 py-2 rounded-lg hover:bg-gray-50 transition-colors cursor-default">
-              <div className="text-2xl font-bold text-gray-900">{profile.posts?.length || 0}</div>
+              <div className="text-2xl font-bold text-gray-900">{profile.postCount || 0}</div>
               <div className="text-gray-600">Posts</div>
             </div>
             
@@ -373,7 +372,7 @@ const ProfileHeader = ({
               onClick={handleFollowersClick}
               className="text-center px-4 py-2 rounded-lg hover:bg-gray-50 transition-colors"
             >
-              <div className="text-2xl font-bold text-gray-900">{profile.followers?.length || 0}</div>
+              <div className="text-2xl font-bold text-gray-900">{profile.followerCount || 0}</div>
               <div className="text-gray-600">Followers</div>
             </button>
             
@@ -381,7 +380,7 @@ const ProfileHeader = ({
               onClick={handleFollowingClick}
               className="text-center px-4 py-2 rounded-lg hover:bg-gray-50 transition-colors"
             >
-              <div className="text-2xl font-bold text-gray-900">{profile.following?.length || 0}</div>
+              <div className="text-2xl font-bold text-gray-900">{profile.followingCount || 0}</div>
               <div className="text-gray-600">Following</div>
             </button>
           </div>
@@ -11,7 +11,7 @@ const Suggestions = ({ loggedInUserId }) => {
     const fetchSuggestions = async () => {
       try {
         const response = await axios.get(
-          `http://localhost:8080/api/profile/suggestions?currentUserId=${loggedInUserId}`
+          `http://localhost:8080/api/profile/suggestions?currentUserId=${loggedInUserId}&limit=20`
         );
         setSuggestions(response.data);
         setLoading(false);
@@ -78,7 +78,7 @@ const Suggestions = ({ loggedInUserId }) => {
                 <div className="relative">
                   <div className="w-10 h-10 rounded-full overflow-hidden border-2 border-white shadow">
                     <img
-                      src={user.profilePicture || `https://i.pravatar.cc/150?u=${user.username}`}
+                      src={user.profilePicturePath || `https://i.pravatar.cc/150?u=${user.username}`}
                       alt={user.name}
                       className="w-full h-full object-cover"
                     />
@@ -91,7 +91,11 @@ const Suggestions = ({ loggedInUserId }) => {
                 </div>
                 <div>
                   <h4 className="font-medium text-gray-800 group-hover:text-indigo-600 transition-colors">{user.name}</h4>
-                  <p className="text-xs text-gray-500">@{user.username}</p>
+                  <p className="text-xs text-gray-500">
+                    @{user.username}
+                    {user.mutualCount > 0 && ` · ${user.mutualCount} mutual`}
+                    {user.mutualCount === 0 && user.followsYou && " · Follows you"}
+                  </p>
                 </div>
               </div>
               <button
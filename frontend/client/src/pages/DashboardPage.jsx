@@ -39,6 +39,7 @@ const PrevArrow = ({ onClick }) => (
 const DashboardPage = () => {
   const navigate = useNavigate();
   const [posts, setPosts] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState("");
   const [showPostForm, setShowPostForm] = useState(false);
@@ -47,10 +48,14 @@ const DashboardPage = () => {
   const [activeTab, setActiveTab] = useState("all");
   const loggedInUserId = localStorage.getItem("userId");
 
-  const fetchPosts = async () => {
+  // The first page replaces the list; later pages follow X-Next-Cursor and are appended
+  const fetchPosts = async (cursor = null) => {
     try {
-      const response = await axios.get(`http://localhost:8080/api/posts/feed?userId=${loggedInUserId}`);
-      setPosts(response.data);
+      const response = await axios.get(`http://localhost:8080/api/posts/feed`, {
+        params: cursor ? { userId: loggedInUserId, cursor } : { userId: loggedInUserId },
+      });
+      setPosts((prev) => (cursor ? [...prev, ...response.data] : response.data));
+      setNextCursor(response.headers["x-next-cursor"] || null);
       setLoading(false);
     } catch (err) {
       setError("Failed to load posts: " + err.message);
@@ -82,11 +87,8 @@ const DashboardPage = () => {
     try {
       const updatedPosts = posts.map((p) => {
         if (p.id === postId) {
-          const alreadyLiked = p.likes.includes(loggedInUserId);
-          const newLikes = alreadyLiked
-            ? p.likes.filter((id) => id !== loggedInUserId)
-            : [...p.likes, loggedInUserId];
-          return { ...p, likes: newLikes };
+          const likedByMe = !p.likedByMe;
+          return { ...p, likedByMe, likeCount: p.likeCount + (likedByMe ? 1 : -1) };
         }
         return p;
       });
@@ -152,7 +154,7 @@ const DashboardPage = () => {
         <div className="bg-white p-8 rounded-2xl shadow-xl max-w-md w-full text-center border border-gray-100">
           <div className="text-red-500 text-xl font-medium mb-4">{error}</div>
           <button 
-            onClick={fetchPosts}
+            onClick={() => fetchPosts()}
             className="px-6 py-3 bg-gradient-to-r from-indigo-600 to-blue-600 text-white rounded-xl hover:shadow-lg transition-all"
           >
             Try Again
@@ -338,14 +340,14 @@ const DashboardPage = () => {
                       <motion.button
                           onClick={() => handleLike(post.id)}
                           className={`flex items-center space-x-2 text-base font-semibold transition-colors ${
-                            post.likes.includes(loggedInUserId) ? 'text-indigo-600' : 'text-gray-500 hover:text-indigo-600'
+                            post.likedByMe ? 'text-indigo-600' : 'text-gray-500 hover:text-indigo-600'
                           }`}
                           whileTap={{ scale: 0.95 }}
                         >
                           <svg xmlns="http://www.w3.org/2000/svg" className="h-5 w-5" viewBox="0 0 20 20" fill="currentColor">
                             <path fillRule="evenodd" d="M3.172 5.172a4 4 0 015.656 0L10 6.343l1.172-1.171a4 4 0 115.656 5.656L10 17.657l-6.828-6.829a4 4 0 010-5.656z" clipRule="evenodd" />
                           </svg>
-                          <span>{post.likes.length} {post.likes.length === 1 ? 'Like' : 'Likes'}</span>
+                          <span>{post.likeCount} {post.likeCount === 1 ? 'Like' : 'Likes'}</span>
                         </motion.button>
 
 
@@ -357,7 +359,7 @@ const DashboardPage = () => {
                             <path fillRule="evenodd" d="M18 5v8a2 2 0 01-2 2h-5l-5 4v-4H4a2 2 0 01-2-2V5a2 2 0 012-2h12a2 2 0 012 2zM7 8H5v2h2V8zm2 0h2v2H9V8zm6 0h-2v2h2V8z" clipRule="evenodd" />
                           </svg>
                           <span className="text-sm font-medium">
-                            {post.comments.length} {post.comments.length === 1 ? 'Comment' : 'Comments'}
+                            {post.commentCount} {post.commentCount === 1 ? 'Comment' : 'Comments'}
                           </span>
                         </button>
                       </div>
@@ -383,12 +385,12 @@ const DashboardPage = () => {
                               </div>
                             </div>
                           ))}
-                          {post.comments.length > 2 && (
+                          {post.commentCount > 2 && (
                             <button
                               onClick={() => handleViewAllComments(post)}
                               className="text-sm text-indigo-600 hover:text-indigo-800 mt-2 font-medium"
                             >
-                              View all {post.comments.length} comments
+                              View all {post.commentCount} comments
                             </button>
                           )}
                         </div>
@@ -424,6 +426,16 @@ const DashboardPage = () => {
                   </button>
                 </motion.div>
               )}
+              {nextCursor && (
+                <div className="text-center">
+                  <button
+                    onClick={() => fetchPosts(nextCursor)}
+                    className="text-sm text-indigo-600 hover:text-indigo-800 font-medium"
+                  >
+                    Load more posts
+                  </button>
+                </div>
+              )}
             </motion.div>
           </AnimatePresence>
         </section>
@@ -538,7 +550,7 @@ const DashboardPage = () => {
                     <motion.button
                       onClick={() => handleLike(focusedPost.id)}
                       className={`flex items-center space-x-2 px-4 py-2 rounded-full ${
-                        focusedPost.likes.includes(loggedInUserId) 
+                        focusedPost.likedByMe 
                           ? 'text-indigo-600 bg-indigo-50' 
                           : 'text-gray-600 hover:bg-gray-50'
                       }`}
@@ -548,7 +560,7 @@ const DashboardPage = () => {
                         <path fillRule="evenodd" d="M3.172 5.172a4 4 0 015.656 0L10 6.343l1.172-1.171a4 4 0 115.656 5.656L10 17.657l-6.828-6.829a4 4 0 010-5.656z" clipRule="evenodd" />
                       </svg>
                       <span className="text-sm font-medium">
-                        {focusedPost.likes.length} {focusedPost.likes.length === 1 ? 'Like' : 'Likes'}
+                        {focusedPost.likeCount} {focusedPost.likeCount === 1 ? 'Like' : 'Likes'}
                       </span>
                     </motion.button>
                   </div>
@@ -561,7 +573,7 @@ const DashboardPage = () => {
                   <svg xmlns="http://www.w3.org/2000/svg" className="h-5 w-5 mr-2 text-indigo-600" fill="none" viewBox="0 0 24 24" stroke="currentColor">
                     <path strokeLinecap="round" strokeLinejoin="round" strokeWidth={2} d="M8 12h.01M12 12h.01M16 12h.01M21 12c0 4.418-4.03 8-9 8a9.863 9.863 0 01-4.255-.949L3 20l1.395-3.72C3.512 15.042 3 13.574 3 12c0-4.418 4.03-8 9-8s9 3.582 9 8z" />
                   </svg>
-                  {focusedPost.comments.length} Comments
+                  {focusedPost.commentCount} Comments
                 </h3>
                 
                 <CommentSection 
@@ -40,17 +40,20 @@ const ProfilePage = () => {
   const { userId } = useParams();
   const [profile, setProfile] = useState(null);
   const [posts, setPosts] = useState([]);
+  const [postsCursor, setPostsCursor] = useState(null);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState("");
   const [isFollowing, setIsFollowing] = useState(false);
   const [showFollowingModal, setShowFollowingModal] = useState(false);
   const [followingUsers, setFollowingUsers] = useState([]);
+  const [followingCursor, setFollowingCursor] = useState(null);
   const [showPostForm, setShowPostForm] = useState(false);
   const [editingPostId, setEditingPostId] = useState(null);
   const [newDescription, setNewDescription] = useState("");
   const loggedInUserId = localStorage.getItem("userId");
   const [showFollowersModal, setShowFollowersModal] = useState(false);
   const [followers, setFollowers] = useState([]);
+  const [followersCursor, setFollowersCursor] = useState(null);
   const [focusedPost, setFocusedPost] = useState(null);
   const [showAllComments, setShowAllComments] = useState(false);
 
@@ -58,14 +61,16 @@ const ProfilePage = () => {
     const fetchProfileAndPosts = async () => {
       try {
         setLoading(true);
-        const [profileResponse, postsResponse] = await Promise.all([
+        const [profileResponse, postsResponse, relationshipResponse] = await Promise.all([
           axios.get(`http://localhost:8080/api/profile/public/${userId}`),
-          axios.get(`http://localhost:8080/api/posts/user/${userId}`)
+          axios.get(`http://localhost:8080/api/posts/user/${userId}`, { params: { viewerId: loggedInUserId } }),
+          axios.get(`http://localhost:8080/api/profile/${userId}/relationship`, { params: { viewerId: loggedInUserId } })
         ]);
         
         setProfile(profileResponse.data);
-        setIsFollowing(profileResponse.data.followers?.includes(loggedInUserId) || false);
+        setIsFollowing(relationshipResponse.data.following);
         setPosts(postsResponse.data);
+        setPostsCursor(postsResponse.headers["x-next-cursor"] || null);
       } catch (err) {
         setError("Failed to load profile or posts.");
         console.error("Error:", err);
@@ -88,6 +93,18 @@ const ProfilePage = () => {
     return () => disconnectWebSocket();
   }, [userId, loggedInUserId]);
 
+  const loadMorePosts = async () => {
+    try {
+      const response = await axios.get(`http://localhost:8080/api/posts/user/${userId}`, {
+        params: { viewerId: loggedInUserId, cursor: postsCursor },
+      });
+      setPosts(prev => [...prev, ...response.data]);
+      setPostsCursor(response.headers["x-next-cursor"] || null);
+    } catch (err) {
+      console.error("Error loading more posts:", err);
+    }
+  };
+
   const handlePostCreated = (newPost) => {
     setPosts([newPost, ...posts]);
     setShowPostForm(false);
@@ -101,12 +118,11 @@ const ProfilePage = () => {
     try {
       const updatedPosts = posts.map(p => {
         if (p.id === postId) {
-          const alreadyLiked = p.likes.includes(loggedInUserId);
+          const likedByMe = !p.likedByMe;
           return {
             ...p,
-            likes: alreadyLiked 
-              ? p.likes.filter(id => id !== loggedInUserId)
-              : [...p.likes, loggedInUserId]
+            likedByMe,
+            likeCount: p.likeCount + (likedByMe ? 1 : -1)
           };
         }
         return p;
@@ -120,8 +136,9 @@ const ProfilePage = () => {
       await axios.post(`http://localhost:8080/api/posts/${postId}/like`, { userId: loggedInUserId });
     } catch (err) {
       console.error("Error liking post:", err);
-      const originalPosts = await axios.get(`http://localhost:8080/api/posts/user/${userId}`);
+      const originalPosts = await axios.get(`http://localhost:8080/api/posts/user/${userId}`, { params: { viewerId: loggedInUserId } });
       setPosts(originalPosts.data);
+      setPostsCursor(originalPosts.headers["x-next-cursor"] || null);
     }
   };
 
@@ -205,8 +222,10 @@ const ProfilePage = () => {
         setShowPostForm={setShowPostForm}
         setShowFollowingModal={setShowFollowingModal}
         setFollowingUsers={setFollowingUsers}
+        setFollowingCursor={setFollowingCursor}
         setShowFollowersModal={setShowFollowersModal}
         setFollowers={setFollowers}
+        setFollowersCursor={setFollowersCursor}
       />
 
       <div className="max-w-4xl mx-auto px-4">
@@ -331,13 +350,13 @@ const ProfilePage = () => {
                 <div className="flex items-center justify-between border-t border-gray-100 pt-4">
                   <motion.button
                     onClick={() => handleLike(post.id)}
-                    className={`flex items-center space-x-2 ${post.likes.includes(loggedInUserId) ? 'text-indigo-600' : 'text-gray-500 hover:text-indigo-600'}`}
+                    className={`flex items-center space-x-2 ${post.likedByMe ? 'text-indigo-600' : 'text-gray-500 hover:text-indigo-600'}`}
                     whileTap={{ scale: 0.95 }}
                   >
                     <svg xmlns="http://www.w3.org/2000/svg" className="h-5 w-5" viewBox="0 0 20 20" fill="currentColor">
                       <path fillRule="evenodd" d="M3.172 5.172a4 4 0 015.656 0L10 6.343l1.172-1.171a4 4 0 115.656 5.656L10 17.657l-6.828-6.829a4 4 0 010-5.656z" clipRule="evenodd" />
                     </svg>
-                    <span>{post.likes.length} Likes</span>
+                    <span>{post.likeCount} Likes</span>
                   </motion.button>
                   <button 
                     onClick={() => handleViewAllComments(post)}
@@ -346,7 +365,7 @@ const ProfilePage = () => {
                     <svg xmlns="http://www.w3.org/2000/svg" className="h-5 w-5" viewBox="0 0 20 20" fill="currentColor">
                       <path fillRule="evenodd" d="M18 5v8a2 2 0 01-2 2h-5l-5 4v-4H4a2 2 0 01-2-2V5a2 2 0 012-2h12a2 2 0 012 2zM7 8H5v2h2V8zm2 0h2v2H9V8zm6 0h-2v2h2V8z" clipRule="evenodd" />
                     </svg>
-                    <span>{post.comments.length} Comments</span>
+                    <span>{post.commentCount} Comments</span>
                   </button>
                 </div>
 
@@ -370,12 +389,12 @@ const ProfilePage = () => {
                           </div>
                         </div>
                       ))}
-                      {post.comments.length > 2 && (
+                      {post.commentCount > 2 && (
                         <button
                           onClick={() => handleViewAllComments(post)}
                           className="text-sm text-indigo-600 hover:text-indigo-800 mt-2"
                         >
-                          View all {post.comments.length} comments
+                          View all {post.commentCount} comments
                         </button>
                       )}
                     </div>
@@ -390,6 +409,16 @@ const ProfilePage = () => {
                 />
               </motion.div>
             ))}
+            {postsCursor && (
+              <div className="text-center">
+                <button
+                  onClick={loadMorePosts}
+                  className="text-sm text-indigo-600 hover:text-indigo-800 font-medium"
+                >
+                  Load more posts
+                </button>
+              </div>
+            )}
           </div>
         ) : (
           <div className="bg-white rounded-xl p-8 text-center shadow-md">
@@ -510,13 +539,13 @@ const ProfilePage = () => {
                   <div className="flex items-center justify-between border-t border-gray-100 pt-4">
                     <motion.button
                       onClick={() => handleLike(focusedPost.id)}
-                      className={`flex items-center space-x-2 ${focusedPost.likes.includes(loggedInUserId) ? 'text-indigo-600' : 'text-gray-500 hover:text-indigo-600'}`}
+                      className={`flex items-center space-x-2 ${focusedPost.likedByMe ? 'text-indigo-600' : 'text-gray-500 hover:text-indigo-600'}`}
                       whileTap={{ scale: 0.95 }}
                     >
                       <svg xmlns="http://www.w3.org/2000/svg" className="h-5 w-5" viewBox="0 0 20 20" fill="currentColor">
                         <path fillRule="evenodd" d="M3.172 5.172a4 4 0 015.656 0L10 6.343l1.172-1.171a4 4 0 115.656 5.656L10 17.657l-6.828-6.829a4 4 0 010-5.656z" clipRule="evenodd" />
                       </svg>
-                      <span>{focusedPost.likes.length} Likes</span>
+                      <span>{focusedPost.likeCount} Likes</span>
                     </motion.button>
                   </div>
                 </div>
@@ -524,7 +553,7 @@ const ProfilePage = () => {
               
               <div className="w-1/2 p-6 overflow-y-auto">
                 <h3 className="text-xl font-bold text-gray-800 mb-6">
-                  {focusedPost.comments.length} Comments
+                  {focusedPost.commentCount} Comments
                 </h3>
                 
                 <CommentSection 
@@ -542,6 +571,8 @@ const ProfilePage = () => {
       {showFollowingModal && (
         <FollowingModal
           followingUsers={followingUsers}
+          userId={userId}
+          initialCursor={followingCursor}
           onClose={() => setShowFollowingModal(false)}
           loggedInUserId={loggedInUserId}
           setProfile={setProfile}
@@ -551,6 +582,8 @@ const ProfilePage = () => {
       {showFollowersModal && (
         <FollowersModal
           followers={followers}
+          userId={userId}
+          initialCursor={followersCursor}
           onClose={() => setShowFollowersModal(false)}
           loggedInUserId={loggedInUserId}
           setProfile={setProfile}
@@ -4,31 +4,109 @@ import { CompatClient, Stomp } from "@stomp/stompjs";
 
 let stompClient = null;
 let isConnected = false;
+let isConnecting = false;
+let hasConnected = false;
 
-export const connectWebSocket = (userId, callback) => {
-  if (isConnected) return;
+// Retries back off from 1s to 30s and start over once a connection is up
+const INITIAL_RECONNECT_DELAY = 1000;
+const MAX_RECONNECT_DELAY = 30000;
+let reconnectDelay = INITIAL_RECONNECT_DELAY;
+let reconnectTimer = null;
+
+// Called after a dropped connection is back, to refetch what was pushed while it was down
+const reconnectListeners = new Set();
+
+// Every wanted subscription, so the ones made before the connection is up are not lost
+const subscriptions = new Map(); // destination -> { callback, handle }
+
+const subscribeNow = (destination, entry) => {
+  entry.handle = stompClient.subscribe(destination, (message) => {
+    entry.callback(JSON.parse(message.body));
+  });
+};
+
+const scheduleReconnect = () => {
+  isConnected = false;
+  isConnecting = false;
+  // The old handles died with the connection; every subscription is made again on reconnect
+  subscriptions.forEach(entry => { entry.handle = null; });
+  // Nothing to reconnect for once every subscription is gone
+  if (reconnectTimer || subscriptions.size === 0) return;
+  reconnectTimer = setTimeout(() => {
+    reconnectTimer = null;
+    connect();
+  }, reconnectDelay);
+  reconnectDelay = Math.min(reconnectDelay * 2, MAX_RECONNECT_DELAY);
+};
+
+const connect = () => {
+  if (isConnected || isConnecting) return;
+  isConnecting = true;
 
   const socket = new SockJS('http://localhost:8080/ws');
-  stompClient = Stomp.over(socket); // This works with the Compat version
+  const client = Stomp.over(socket); // This works with the Compat version
+  stompClient = client;
+
+  // Callbacks of a client that has since been replaced are ignored
+  const onLost = (error) => {
+    if (stompClient !== client) return;
+    console.error("WebSocket Error:", error);
+    scheduleReconnect();
+  };
 
-  stompClient.connect({}, () => {
+  client.connect({}, () => {
+    if (stompClient !== client) return;
     isConnected = true;
+    isConnecting = false;
+    reconnectDelay = INITIAL_RECONNECT_DELAY;
     console.log("WebSocket Connected");
-    stompClient.subscribe(`/topic/profile-update/${userId}`, (message) => {
-      const update = JSON.parse(message.body);
-      callback(update);
-    });
-  }, (error) => {
-    console.error("WebSocket Error:", error);
-    isConnected = false;
-  });
+    subscriptions.forEach((entry, destination) => subscribeNow(destination, entry));
+    if (hasConnected) reconnectListeners.forEach(listener => listener());
+    hasConnected = true;
+  }, onLost, onLost);
+};
+
+export const subscribeToTopic = (destination, callback) => {
+  const entry = { callback, handle: null };
+  subscriptions.get(destination)?.handle?.unsubscribe();
+  subscriptions.set(destination, entry);
+  if (isConnected) {
+    subscribeNow(destination, entry);
+  } else {
+    connect();
+  }
+  return () => {
+    entry.handle?.unsubscribe();
+    if (subscriptions.get(destination) === entry) subscriptions.delete(destination);
+  };
+};
+
+export const onReconnect = (listener) => {
+  reconnectListeners.add(listener);
+  return () => reconnectListeners.delete(listener);
+};
+
+export const connectWebSocket = (userId, callback) => {
+  subscribeToTopic(`/topic/profile-update/${userId}`, callback);
 };
 
+// New and withdrawn notifications, each with the current unread count
+export const subscribeToNotifications = (userId, callback) =>
+  subscribeToTopic(`/topic/notifications/${userId}`, callback);
+
 export const disconnectWebSocket = () => {
-  if (stompClient && isConnected) {
-    stompClient.disconnect(() => {
+  subscriptions.clear();
+  clearTimeout(reconnectTimer);
+  reconnectTimer = null;
+  reconnectDelay = INITIAL_RECONNECT_DELAY;
+  hasConnected = false;
+  const client = stompClient;
+  stompClient = null;
+  isConnecting = false;
+  if (client && isConnected) {
+    isConnected = false;
+    client.disconnect(() => {
       console.log("WebSocket Disconnected");
-      isConnected = false;
     });
   }
 };